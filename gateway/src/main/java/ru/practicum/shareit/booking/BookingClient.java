@@ -1,36 +1,61 @@
 package ru.practicum.shareit.booking;
 
+import org.apache.http.conn.EofSensorInputStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final int STREAM_BUFFER_SIZE = 1024;
 
     @Autowired
     public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(BookingClient::streamingRequestFactory)
                         .build()
         );
     }
 
+    /**
+     * Тело запроса не накапливается в памяти, а передаётся на сервер по мере чтения: это нужно для импорта
+     */
+    private static HttpComponentsClientHttpRequestFactory streamingRequestFactory() {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+        factory.setBufferRequestBody(false);
+        return factory;
+    }
+
     public ResponseEntity<Object> saveNewBooking(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> saveBookingSeries(long userId, BookingSeriesRequestDto requestDto) {
+        return post("/series", userId, requestDto);
+    }
+
     public ResponseEntity<Object> updateBooking(long bookingId, Long userId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
@@ -38,6 +63,60 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> decideBookings(long userId, List<BookingDecisionDto> decisions) {
+        return patch("/decisions", userId, decisions);
+    }
+
+    public ResponseEntity<Object> getOwnerSummary(long userId) {
+        return get("/owner/summary", userId);
+    }
+
+    public ResponseEntity<Object> importBookings(long userId, InputStream lines) {
+        try {
+            return rest.execute("/import", HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        StreamUtils.copy(lines, request.getBody());
+                    },
+                    response -> ResponseEntity.status(response.getStatusCode())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(StreamUtils.copyToByteArray(response.getBody())));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    /**
+     * Копирует поток событий сервера в out по мере поступления, не накапливая ответ целиком.
+     * Если клиент отключился, соединение с сервером обрывается, а не дочитывается до конца.
+     */
+    public void streamOwnerBookings(long userId, OutputStream out) {
+        rest.execute("/owner/stream", HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                },
+                response -> {
+                    InputStream body = response.getBody();
+                    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                    int read;
+                    try {
+                        while ((read = body.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        if (body instanceof EofSensorInputStream) {
+                            ((EofSensorInputStream) body).abortConnection();
+                        }
+                        throw e;
+                    }
+                    return null;
+                });
+    }
+
     public ResponseEntity<Object> getBookingById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
@@ -53,6 +132,15 @@ public class BookingClient extends BaseClient {
     }
 
 
+    public ResponseEntity<Object> getBookingsByUser(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getBookingsByOwner(Long userId, BookingState state, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
@@ -61,4 +149,13 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public ResponseEntity<Object> getBookingsByOwner(Long userId, BookingState state, String cursor, int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
 }
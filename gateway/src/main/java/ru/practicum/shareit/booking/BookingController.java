@@ -2,17 +2,26 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.ValidationException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -29,6 +38,20 @@ public class BookingController {
         return bookingClient.saveNewBooking(userId, requestDto);
     }
 
+    @PostMapping("/series")
+    public ResponseEntity<Object> saveBookingSeries(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestBody @Valid BookingSeriesRequestDto requestDto) {
+        log.info("GATEWAY: Получен запрос на серию бронирований '{}' пользователем '{}'", requestDto, userId);
+        return bookingClient.saveBookingSeries(userId, requestDto);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> importBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 InputStream lines) {
+        log.info("GATEWAY: Получен запрос на импорт бронирований пользователем с ID={}", userId);
+        return bookingClient.importBookings(userId, lines);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> updateBooking(@PathVariable("bookingId") long bookingId,
                                                 @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -38,6 +61,14 @@ public class BookingController {
         return response;
     }
 
+    @PatchMapping("/decisions")
+    public ResponseEntity<Object> decideBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @NotEmpty List<@Valid BookingDecisionDto> decisions) {
+        log.info("GATEWAY: Получен запрос от пользователя с ID={} на решение по {} бронированиям",
+                userId, decisions.size());
+        return bookingClient.decideBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable Long bookingId) {
@@ -49,7 +80,8 @@ public class BookingController {
     public ResponseEntity<Object> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") long userId,
                                                     @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS"));
         if ((from < 0) || (size < 1)) {
@@ -57,14 +89,39 @@ public class BookingController {
         }
         log.info("GATEWAY: Получен запрос на получение " +
                 "списка бронирований пользователя с ID={} с параметром STATE={}", stateParam, userId);
+        if (cursor != null) {
+            return bookingClient.getBookingsByUser(userId, state, cursor, size);
+        }
         return bookingClient.getBookingsByUser(userId, state, from, size);
     }
 
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getOwnerSummary(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("GATEWAY: Получен запрос на получение сводки бронирований владельцем вещей с ID={}", userId);
+        return bookingClient.getOwnerSummary(userId);
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("GATEWAY: Получен запрос на подписку владельца с ID={} на изменения бронирований", userId);
+        StreamingResponseBody body = out -> {
+            try {
+                bookingClient.streamOwnerBookings(userId, out);
+            } catch (HttpStatusCodeException e) {
+                log.info("GATEWAY: Сервер отклонил подписку владельца с ID={}: {}", userId, e.getStatusCode());
+                out.write(("event:error\ndata:" + e.getResponseBodyAsString(StandardCharsets.UTF_8) + "\n\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(body);
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                      @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                      @RequestParam(name = "from", defaultValue = "0") int from,
-                                                     @RequestParam(name = "size", defaultValue = "10") int size) {
+                                                     @RequestParam(name = "size", defaultValue = "10") int size,
+                                                     @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS"));
         if ((from < 0) || (size < 1)) {
@@ -72,6 +129,9 @@ public class BookingController {
         }
         log.info("GATEWAY: Получен запрос на получение " +
                 "списка бронирований владельца с ID={} с параметром STATE={}", stateParam, userId);
+        if (cursor != null) {
+            return bookingClient.getBookingsByOwner(userId, state, cursor, size);
+        }
         return bookingClient.getBookingsByOwner(userId, state, from, size);
     }
 }
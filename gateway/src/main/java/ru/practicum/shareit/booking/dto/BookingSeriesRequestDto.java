@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BookingSeriesRequestDto {
+	@NotNull
+	private Long itemId;
+	@FutureOrPresent
+	@NotNull
+	private LocalDateTime start;
+	@Future
+	@NotNull
+	private LocalDateTime end;
+	@NotNull
+	@Pattern(regexp = "DAILY|WEEKLY")
+	private String frequency;
+	@Positive
+	private Integer interval;
+	@Positive
+	private Integer count;
+	private LocalDateTime until;
+}
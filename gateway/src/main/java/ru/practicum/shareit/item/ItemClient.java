@@ -11,6 +11,7 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemIncomeDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -60,6 +61,56 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getFreeItemByDescription(long userId, String text, LocalDateTime freeFrom,
+                                                           LocalDateTime freeTo, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "freeFrom", freeFrom,
+                "freeTo", freeTo,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&freeFrom={freeFrom}&freeTo={freeTo}&from={from}&size={size}", userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> getItemPageByDescription(long userId, String text, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search/page?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getFreeItemPageByDescription(long userId, String text, LocalDateTime freeFrom,
+                                                               LocalDateTime freeTo, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "freeFrom", freeFrom,
+                "freeTo", freeTo,
+                "from", from,
+                "size", size
+        );
+        return get("/search/page?text={text}&freeFrom={freeFrom}&freeTo={freeTo}&from={from}&size={size}", userId,
+                parameters);
+    }
+
+    public ResponseEntity<Object> suggestItems(long userId, String prefix, int limit) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "limit", limit
+        );
+        return get("/suggest?prefix={prefix}&limit={limit}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
 
     public ResponseEntity<Object> addComment(Long userId, long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
@@ -1,7 +1,8 @@
 package ru.practicum.shareit.item;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -11,14 +12,21 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemIncomeDto;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
-@RequiredArgsConstructor
 @Slf4j
 @Validated
 public class ItemController {
     private final ItemClient itemClient;
+    private final int suggestTopSize;
+
+    public ItemController(ItemClient itemClient,
+                          @Value("${shareit.item-suggest.top-size:10}") int suggestTopSize) {
+        this.itemClient = itemClient;
+        this.suggestTopSize = suggestTopSize;
+    }
 
     @GetMapping
     public ResponseEntity<Object> getAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -70,12 +78,79 @@ public class ItemController {
     public ResponseEntity<Object> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @RequestParam String text,
                                              @RequestParam(name = "from", defaultValue = "0") int from,
-                                             @RequestParam(name = "size", defaultValue = "10") int size) {
+                                             @RequestParam(name = "size", defaultValue = "10") int size,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime freeFrom,
+                                             @RequestParam(required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime freeTo) {
         log.info("GATEWAY: Получен запрос на поиск итема по содержанию текста '{}' у пользователя '{}'", text, userId);
         if ((from < 0) || (size < 1)) {
             throw new ValidationException("Параметры запроса неверны");
         }
-        return itemClient.getItemByDescription(userId, text, from, size);
+        if (freeFrom == null && freeTo == null) {
+            return itemClient.getItemByDescription(userId, text, from, size);
+        }
+        if (freeFrom == null || freeTo == null || !freeFrom.isBefore(freeTo)) {
+            throw new ValidationException("Период freeFrom - freeTo задан неверно");
+        }
+        return itemClient.getFreeItemByDescription(userId, text, freeFrom, freeTo, from, size);
+    }
+
+    @GetMapping("/search/page")
+    public ResponseEntity<Object> searchItemPage(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam String text,
+                                                 @RequestParam(name = "from", defaultValue = "0") int from,
+                                                 @RequestParam(name = "size", defaultValue = "10") int size,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime freeFrom,
+                                                 @RequestParam(required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime freeTo) {
+        log.info("GATEWAY: Получен запрос на страницу поиска итема по тексту '{}' с числом совпадений у пользователя '{}'",
+                text, userId);
+        if ((from < 0) || (size < 1)) {
+            throw new ValidationException("Параметры запроса неверны");
+        }
+        if (freeFrom == null && freeTo == null) {
+            return itemClient.getItemPageByDescription(userId, text, from, size);
+        }
+        if (freeFrom == null || freeTo == null || !freeFrom.isBefore(freeTo)) {
+            throw new ValidationException("Период freeFrom - freeTo задан неверно");
+        }
+        return itemClient.getFreeItemPageByDescription(userId, text, freeFrom, freeTo, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam String prefix,
+                                               @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("GATEWAY: Получен запрос на подсказку названий итемов по префиксу '{}' у пользователя '{}'", prefix,
+                userId);
+        if (limit < 1) {
+            throw new ValidationException("Параметры запроса неверны");
+        }
+        if (limit > suggestTopSize) {
+            throw new ValidationException("Подсказок не может быть больше " + suggestTopSize);
+        }
+        return itemClient.suggestItems(userId, prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @PathVariable("itemId") Long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to) {
+        log.info("GATEWAY: Получен запрос от пользователя '{}' - занятость итема '{}' с {} по {}",
+                userId, itemId, from, to);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
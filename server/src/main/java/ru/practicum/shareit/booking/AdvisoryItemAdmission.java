@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Очередь по вещи для нескольких узлов: транзакционная advisory-блокировка PostgreSQL с ключом ID вещи.
+ * Блокировка снимается самой базой при фиксации или откате транзакции.
+ */
+@Component
+@ConditionalOnProperty(name = ItemAdmission.MODE_PROPERTY, havingValue = "advisory")
+@RequiredArgsConstructor
+public class AdvisoryItemAdmission implements ItemAdmission {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public <T> T admit(Long itemId, Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.query("select pg_advisory_xact_lock(?)", rs -> {
+            }, itemId);
+            return action.get();
+        });
+    }
+
+    @Override
+    public <T> T admitAll(Collection<Long> itemIds, Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            itemIds.stream().distinct().sorted().forEach(itemId ->
+                    jdbcTemplate.query("select pg_advisory_xact_lock(?)", rs -> {
+                    }, itemId));
+            return action.get();
+        });
+    }
+}
@@ -23,7 +23,7 @@ public class Booking {
     private LocalDateTime start;
     @Column(name = "end_date")
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(optional = false)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
     @ManyToOne
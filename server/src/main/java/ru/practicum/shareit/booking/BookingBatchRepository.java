@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетные вставка и смена статуса бронирований через JDBC: один пакет вместо отдельного
+ * запроса на каждую строку.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+    private static final String INSERT = "insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+            "values (?, ?, ?, ?, ?)";
+    private static final String DECIDE = "update bookings set status = ? " +
+            "where id = ? and status = 'WAITING' and end_date > ? " +
+            "and item_id in (select id from items where owner_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static Object[] row(LocalDateTime start, LocalDateTime end, Long itemId, Long bookerId,
+                               BookingStatus status) {
+        return new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, bookerId, status.name()};
+    }
+
+    /**
+     * Строки собираются методом {@link #row}
+     */
+    public void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    /**
+     * Переводит ожидающие и не истёкшие бронирования вещей владельца в новые статусы.
+     * Возвращает ID бронирований, которые изменил этот пакет: параллельно изменённые в него не попадают
+     */
+    public Set<Long> decide(Long ownerId, Map<Long, BookingStatus> statuses, LocalDateTime now) {
+        List<Long> ids = new ArrayList<>(statuses.keySet());
+        List<Object[]> rows = ids.stream()
+                .map(id -> new Object[]{statuses.get(id).name(), id, Timestamp.valueOf(now), ownerId})
+                .collect(Collectors.toList());
+        int[] counts = jdbcTemplate.batchUpdate(DECIDE, rows);
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                changed.add(ids.get(i));
+            }
+        }
+        return changed;
+    }
+}
@@ -1,23 +1,43 @@
 package ru.practicum.shareit.booking;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
 import ru.practicum.shareit.booking.dto.BookingIncomeDto;
-import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.SearchStatus;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
-@RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String STREAM_EVENT_NAME = "booking";
+
     private final BookingService bookingService;
+    private final Duration streamTimeout;
+
+    public BookingController(BookingService bookingService,
+                             @Value("${shareit.booking-stream.timeout:PT30M}") Duration streamTimeout) {
+        this.bookingService = bookingService;
+        this.streamTimeout = streamTimeout;
+    }
 
     @PostMapping
     public BookingOutcomeDto saveNewBooking(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -26,6 +46,20 @@ public class BookingController {
         return bookingService.saveNewBooking(dto.getStart(), dto.getEnd(), dto.getItemId(), userId);
     }
 
+    @PostMapping("/series")
+    public List<BookingOutcomeDto> saveBookingSeries(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                     @Valid @RequestBody BookingSeriesDto series) {
+        log.info("Получен запрос на серию бронирований '{}' пользователем '{}'", series, userId);
+        return bookingService.saveBookingSeries(userId, series);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BookingImportResultDto importBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 InputStream lines) {
+        log.info("Получен запрос на импорт бронирований пользователем с ID={}", userId);
+        return bookingService.importBookings(userId, lines);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingOutcomeDto updateBooking(@PathVariable("bookingId") long bookingId,
                                            @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -34,6 +68,13 @@ public class BookingController {
         return bookingService.updateBooking(bookingId, userId, approved);
     }
 
+    @PatchMapping("/decisions")
+    public List<BookingDecisionResultDto> decideBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Получен запрос от пользователя с ID={} на решение по {} бронированиям", userId, decisions.size());
+        return bookingService.decideBookings(userId, decisions);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingOutcomeDto getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                             @PathVariable("bookingId") long bookingId) {
@@ -49,7 +90,7 @@ public class BookingController {
         log.info("Получен запрос на получение " +
                 "списка бронирований пользователя с ID={} с параметром STATE={}", userId, stateParam);
         SearchStatus state = SearchStatus.valueOf(stateParam);
-        return bookingService.getBookingsByUser(userId, state, from / size, size).stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        return bookingService.getBookingsByUser(userId, state, from / size, size);
     }
 
     @GetMapping("/owner")
@@ -62,4 +103,92 @@ public class BookingController {
         SearchStatus state = SearchStatus.valueOf(stateParam);
         return bookingService.getBookingsByOwner(userId, state, from / size, size);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Получен запрос на получение сводки бронирований владельцем вещей с ID={}", userId);
+        return bookingService.getOwnerSummary(userId);
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Получен запрос на подписку владельца вещей с ID={} на изменения бронирований", userId);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        BookingSubscription subscription = bookingService.subscribeOwnerBookings(userId, new SseEventSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingOutcomeDto>> getBookingsByUserAfter(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = "cursor") String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size) {
+        log.info("Получен запрос на получение " +
+                "списка бронирований пользователя с ID={} с параметром STATE={} после курсора '{}'",
+                userId, stateParam, cursor);
+        SearchStatus state = SearchStatus.valueOf(stateParam);
+        return withNextCursor(bookingService.getBookingsByUserAfter(userId, state, decodeCursor(cursor), size),
+                size);
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingOutcomeDto>> getBookingsByOwnerAfter(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = "cursor") String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size) {
+        log.info("Получен запрос на получение " +
+                "списка бронирований владельцем вещи с ID={} с параметром STATE={} после курсора '{}'",
+                userId, stateParam, cursor);
+        SearchStatus state = SearchStatus.valueOf(stateParam);
+        return withNextCursor(bookingService.getBookingsByOwnerAfter(userId, state, decodeCursor(cursor), size),
+                size);
+    }
+
+    private BookingCursor decodeCursor(String cursor) {
+        return cursor.isBlank() ? null : BookingCursor.decode(cursor);
+    }
+
+    private ResponseEntity<List<BookingOutcomeDto>> withNextCursor(List<BookingOutcomeDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        String nextCursor = BookingCursor.of(bookings.get(bookings.size() - 1)).encode();
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, nextCursor).body(bookings);
+    }
+
+    /**
+     * События подписки в виде Server-Sent Events
+     */
+    private static final class SseEventSink implements BookingEventSink {
+        private final SseEmitter emitter;
+
+        private SseEventSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(BookingEventDto event) throws IOException {
+            emitter.send(SseEmitter.event().name(STREAM_EVENT_NAME).data(event));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            emitter.completeWithError(error);
+        }
+    }
+}
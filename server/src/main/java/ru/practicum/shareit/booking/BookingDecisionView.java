@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сведения о бронировании, нужные владельцу для подтверждения или отклонения.
+ */
+public interface BookingDecisionView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getEnd();
+}
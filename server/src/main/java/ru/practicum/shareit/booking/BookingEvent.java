@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Бронирование вещи владельца создано или сменило статус.
+ * Публикуется через ApplicationEventPublisher, получатели - подписчики {@link OwnerBookingStream}.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class BookingEvent {
+    private final Long bookingId;
+    private final Long itemId;
+    private final Long ownerId;
+    private final BookingStatus status;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import java.io.IOException;
+
+/**
+ * Канал доставки событий одному подписчику. Реализуется на уровне контроллера,
+ * сервис бронирований не знает, как событие уходит клиенту.
+ */
+public interface BookingEventSink {
+    void send(BookingEventDto event) throws IOException;
+
+    /**
+     * Пустое сообщение, чтобы соединение не закрылось по простою
+     */
+    void heartbeat() throws IOException;
+
+    void complete();
+
+    void completeWithError(Throwable error);
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Переводит в EXPIRED ожидающие бронирования, начало которых уже прошло.
+ * Работает порциями по chunk-size строк, каждая порция - отдельная транзакция;
+ * на нескольких узлах задачу выполняет только владелец аренды {@link #LEASE_NAME}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-expiry.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BookingExpiryJob {
+    static final String LEASE_NAME = "booking-expiry";
+
+    private final BookingRepository repository;
+    private final BookingIntervalIndex intervalIndex;
+    private final OwnerBookingCounters ownerCounters;
+    private final LeaseService leaseService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration leaseDuration;
+    private final Counter processed;
+    private final AtomicLong lagSeconds;
+
+    public BookingExpiryJob(BookingRepository repository,
+                            BookingIntervalIndex intervalIndex,
+                            OwnerBookingCounters ownerCounters,
+                            LeaseService leaseService,
+                            ApplicationEventPublisher events,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking-expiry.chunk-size:1000}") int chunkSize,
+                            @Value("${shareit.booking-expiry.lease:PT5M}") Duration leaseDuration) {
+        this.repository = repository;
+        this.intervalIndex = intervalIndex;
+        this.ownerCounters = ownerCounters;
+        this.leaseService = leaseService;
+        this.events = events;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = leaseDuration;
+        this.processed = meterRegistry.counter("shareit.booking.expiry.processed");
+        this.lagSeconds = meterRegistry.gauge("shareit.booking.expiry.lag.seconds", new AtomicLong());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-expiry.delay:PT1M}",
+            initialDelayString = "${shareit.booking-expiry.delay:PT1M}")
+    public void run() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+            log.debug("Аренда '{}' занята другим узлом", LEASE_NAME);
+            return;
+        }
+        try {
+            expireStale(LocalDateTime.now());
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    /**
+     * Обрабатывает порции, пока они полные и аренда продлевается
+     */
+    int expireStale(LocalDateTime now) {
+        int total = 0;
+        long lag = 0;
+        List<StaleBookingView> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> expireChunk(now));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            if (total == 0) {
+                lag = Duration.between(chunk.get(0).getStart(), now).toSeconds();
+            }
+            total += chunk.size();
+            processed.increment(chunk.size());
+        } while (chunk.size() == chunkSize && leaseService.tryAcquire(LEASE_NAME, leaseDuration));
+        lagSeconds.set(lag);
+        if (total > 0) {
+            log.info("Истекло {} ожидающих бронирований, самое старое ждало {} с", total, lag);
+        }
+        return total;
+    }
+
+    private List<StaleBookingView> expireChunk(LocalDateTime now) {
+        List<StaleBookingView> chunk = repository.findStaleWaiting(now, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+        int updated = repository.expireWaiting(chunk.stream().map(StaleBookingView::getId)
+                .collect(Collectors.toList()));
+        if (updated == chunk.size()) {
+            chunk.forEach(booking -> events.publishEvent(new BookingEvent(booking.getId(), booking.getItemId(),
+                    booking.getOwnerId(), BookingStatus.EXPIRED)));
+            AfterCommit.run(() -> chunk.forEach(booking -> {
+                intervalIndex.remove(booking.getItemId(), booking.getId());
+                ownerCounters.onStatusChange(booking.getOwnerId(), BookingStatus.WAITING,
+                        BookingStatus.EXPIRED);
+            }));
+        } else {
+            AfterCommit.run(() -> chunk.forEach(booking -> {
+                intervalIndex.evict(booking.getItemId());
+                ownerCounters.evict(booking.getOwnerId());
+            }));
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Порция импорта бронирований зафиксирована. Строки вставляются пакетом без возврата ID,
+ * поэтому вместо {@link BookingEvent} на каждую бронь публикуется число вставленных броней по вещам.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class BookingImportEvent {
+    private final Long ownerId;
+    private final Map<Long, Integer> bookingsByItem;
+}
@@ -0,0 +1,298 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingImportErrorDto;
+import ru.practicum.shareit.booking.dto.BookingImportLineDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт бронирований вещей владельца из NDJSON: одна строка - одно бронирование.
+ * Строки читаются и проверяются по мере поступления, пользователи, вещи и пересечения
+ * проверяются одним запросом на порцию из chunk-size строк, порция вставляется пакетом JDBC.
+ * Пересечения проверяются и порция вставляется под допуском ко всем её вещам, как и обычные бронирования.
+ * Ошибочные строки пропускаются и попадают в отчёт, остальные импортируются.
+ * После фиксации каждой порции публикуется {@link BookingImportEvent} с числом вставленных броней по вещам.
+ */
+@Component
+@Slf4j
+public class BookingImporter {
+    private static final Set<BookingStatus> ACTIVE = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final ObjectMapper objectMapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookingBatchRepository batchRepository;
+    private final ItemAdmission admission;
+    private final BookingIntervalIndex intervalIndex;
+    private final OwnerBookingCounters ownerCounters;
+    private final ApplicationEventPublisher events;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public BookingImporter(ObjectMapper objectMapper,
+                           NamedParameterJdbcTemplate jdbcTemplate,
+                           BookingBatchRepository batchRepository,
+                           ItemAdmission admission,
+                           BookingIntervalIndex intervalIndex,
+                           OwnerBookingCounters ownerCounters,
+                           ApplicationEventPublisher events,
+                           @Value("${shareit.booking-import.chunk-size:1000}") int chunkSize,
+                           @Value("${shareit.booking-import.max-errors:1000}") int maxErrors) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchRepository = batchRepository;
+        this.admission = admission;
+        this.intervalIndex = intervalIndex;
+        this.ownerCounters = ownerCounters;
+        this.events = events;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public BookingImportResultDto importBookings(Long ownerId, InputStream lines) {
+        Report report = new Report();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Set<Long> touchedItems = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(lines, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                report.lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Row row = parse(report.lines, line, report);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(ownerId, chunk, report, touchedItems);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Не удалось прочитать строки импорта: " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(ownerId, chunk, report, touchedItems);
+        }
+        touchedItems.forEach(intervalIndex::evict);
+        ownerCounters.evict(ownerId);
+        log.info("Пользователь с ID={} импортировал {} бронирований из {} строк, ошибок {}", ownerId,
+                report.imported, report.lines, report.failed);
+        return new BookingImportResultDto(report.lines, report.imported, report.failed, report.errors);
+    }
+
+    private Row parse(long lineNumber, String line, Report report) {
+        BookingImportLineDto dto;
+        try {
+            dto = objectMapper.readValue(line, BookingImportLineDto.class);
+        } catch (JsonProcessingException e) {
+            report.fail(lineNumber, "Строка не является бронированием в формате JSON.");
+            return null;
+        }
+        if (dto.getItemId() == null || dto.getBookerId() == null || dto.getStart() == null || dto.getEnd() == null) {
+            report.fail(lineNumber, "Для бронирования нужны itemId, bookerId, start и end.");
+            return null;
+        }
+        if (!dto.getStart().isBefore(dto.getEnd())) {
+            report.fail(lineNumber, "Время начала бронирования не может быть позже окончания.");
+            return null;
+        }
+        if (dto.getStatus() == null) {
+            dto.setStatus(BookingStatus.WAITING);
+        }
+        return new Row(lineNumber, dto);
+    }
+
+    /**
+     * Проверяет порцию тремя запросами и вставляет прошедшие проверку строки одним пакетом.
+     * Пересечения проверяются в той же транзакции, что и вставка, под допуском к вещам порции.
+     */
+    private void importChunk(Long ownerId, List<Row> chunk, Report report, Set<Long> touchedItems) {
+        Set<Long> bookerIds = chunk.stream().map(row -> row.dto.getBookerId()).collect(Collectors.toSet());
+        Set<Long> itemIds = chunk.stream().map(row -> row.dto.getItemId()).collect(Collectors.toSet());
+        Set<Long> existingBookers = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from users where id in (:ids)", Map.of("ids", bookerIds), Long.class));
+        Set<Long> ownItems = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from items where owner_id = :ownerId and id in (:ids)",
+                Map.of("ownerId", ownerId, "ids", itemIds), Long.class));
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            BookingImportLineDto dto = row.dto;
+            if (!ownItems.contains(dto.getItemId())) {
+                report.fail(row.line, "Вещь с ID=" + dto.getItemId() + " не найдена среди вещей пользователя.");
+            } else if (!existingBookers.contains(dto.getBookerId())) {
+                report.fail(row.line, "Пользователь с ID=" + dto.getBookerId() + " не найден.");
+            } else if (dto.getBookerId().equals(ownerId)) {
+                report.fail(row.line, "Вещь не может быть забронирована её владельцем.");
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        Set<Long> validItems = valid.stream().map(row -> row.dto.getItemId()).collect(Collectors.toSet());
+        List<Row> accepted = new ArrayList<>(valid.size());
+        List<Row> inserted;
+        try {
+            admission.admitAll(validItems, () -> {
+                accepted.addAll(reserveAll(valid, report));
+                if (!accepted.isEmpty()) {
+                    batchRepository.insert(accepted.stream().map(BookingImporter::toArgs).collect(Collectors.toList()));
+                }
+                return null;
+            });
+            inserted = accepted;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Пакет из {} бронирований отклонён базой данных, строки вставляются по одной", accepted.size());
+            inserted = insertOneByOne(accepted, report);
+        }
+        report.imported += inserted.size();
+        accepted.forEach(row -> touchedItems.add(row.dto.getItemId()));
+        if (!inserted.isEmpty()) {
+            events.publishEvent(new BookingImportEvent(ownerId, inserted.stream()
+                    .collect(Collectors.groupingBy(row -> row.dto.getItemId(), Collectors.summingInt(row -> 1)))));
+        }
+    }
+
+    /**
+     * Строки, не пересекающиеся ни с бронированиями в базе, ни с уже принятыми строками
+     */
+    private List<Row> reserveAll(List<Row> rows, Report report) {
+        Map<Long, TreeMap<LocalDateTime, LocalDateTime>> busy = findBusy(rows);
+        List<Row> accepted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (ACTIVE.contains(row.dto.getStatus())
+                    && !reserve(busy.computeIfAbsent(row.dto.getItemId(), id -> new TreeMap<>()), row.dto)) {
+                report.fail(row.line, "Вещь уже забронирована на это время.");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Ожидающие и подтверждённые бронирования вещей порции, пересекающие её период: начало -> окончание
+     */
+    private Map<Long, TreeMap<LocalDateTime, LocalDateTime>> findBusy(List<Row> rows) {
+        Map<Long, TreeMap<LocalDateTime, LocalDateTime>> busy = new HashMap<>();
+        List<BookingImportLineDto> active = rows.stream()
+                .map(row -> row.dto)
+                .filter(dto -> ACTIVE.contains(dto.getStatus()))
+                .collect(Collectors.toList());
+        if (active.isEmpty()) {
+            return busy;
+        }
+        LocalDateTime from = active.stream().map(BookingImportLineDto::getStart).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = active.stream().map(BookingImportLineDto::getEnd).max(LocalDateTime::compareTo).get();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", active.stream().map(BookingImportLineDto::getItemId).collect(Collectors.toSet()))
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        jdbcTemplate.query("select item_id, start_date, end_date from bookings " +
+                        "where item_id in (:ids) and status in ('WAITING', 'APPROVED') " +
+                        "and start_date < :to and end_date > :from",
+                parameters,
+                rs -> {
+                    busy.computeIfAbsent(rs.getLong(1), id -> new TreeMap<>())
+                            .merge(rs.getTimestamp(2).toLocalDateTime(), rs.getTimestamp(3).toLocalDateTime(),
+                                    (a, b) -> a.isAfter(b) ? a : b);
+                });
+        return busy;
+    }
+
+    /**
+     * Занимает период, если он не пересекается с уже занятыми
+     */
+    private static boolean reserve(TreeMap<LocalDateTime, LocalDateTime> busy, BookingImportLineDto dto) {
+        Map.Entry<LocalDateTime, LocalDateTime> before = busy.lowerEntry(dto.getEnd());
+        if (before != null && before.getValue().isAfter(dto.getStart())) {
+            return false;
+        }
+        busy.put(dto.getStart(), dto.getEnd());
+        return true;
+    }
+
+    /**
+     * Каждая строка проверяется заново и вставляется в своей транзакции под допуском к своей вещи.
+     * Возвращает вставленные строки
+     */
+    private List<Row> insertOneByOne(List<Row> rows, Report report) {
+        List<Row> inserted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                boolean done = admission.admit(row.dto.getItemId(), () -> {
+                    if (reserveAll(List.of(row), report).isEmpty()) {
+                        return false;
+                    }
+                    batchRepository.insert(Collections.singletonList(toArgs(row)));
+                    return true;
+                });
+                if (done) {
+                    inserted.add(row);
+                }
+            } catch (DataIntegrityViolationException e) {
+                report.fail(row.line, BookingOverlaps.isOverlap(e) ? "Вещь уже забронирована на это время."
+                        : "Строка отклонена базой данных: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private static Object[] toArgs(Row row) {
+        BookingImportLineDto dto = row.dto;
+        return BookingBatchRepository.row(dto.getStart(), dto.getEnd(), dto.getItemId(), dto.getBookerId(),
+                dto.getStatus());
+    }
+
+    private static final class Row {
+        private final long line;
+        private final BookingImportLineDto dto;
+
+        private Row(long line, BookingImportLineDto dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+    }
+
+    private final class Report {
+        private long lines;
+        private long imported;
+        private long failed;
+        private final List<BookingImportErrorDto> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new BookingImportErrorDto(line, message));
+            }
+        }
+    }
+}
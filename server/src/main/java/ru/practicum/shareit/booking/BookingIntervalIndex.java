@@ -0,0 +1,151 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Занятые периоды вещей в памяти. При первом обращении из базы читаются периоды вещи, которые ещё
+ * не закончились; дальше они поддерживаются сервисом бронирований при создании и изменении статуса брони.
+ * Запросы, начинающиеся раньше чтения, идут в базу. Вещей в памяти не больше max-size, каждая живёт
+ * не дольше ttl с момента чтения. Чтение идёт вне блокировок кэша: если во время него вещи менялись,
+ * прочитанное отдаётся, но не сохраняется. Бронирования с других узлов сюда не попадают, поэтому
+ * в режиме допуска advisory (несколько узлов) индекс не хранит ничего и каждый запрос идёт в базу.
+ */
+@Component
+@Slf4j
+public class BookingIntervalIndex {
+    static final String NAME = "booking-intervals";
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final BookingRepository repository;
+    private final Cache<Long, Entry> items;
+    private final boolean shared;
+    /**
+     * Число изменений: чтение, во время которого оно изменилось, могло пропустить изменение
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    public BookingIntervalIndex(BookingRepository repository,
+                                ItemAdmission admission,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking-intervals.max-size:10000}") long maxSize,
+                                @Value("${shareit.booking-intervals.ttl:PT10M}") Duration ttl) {
+        this.repository = repository;
+        this.shared = admission instanceof AdvisoryItemAdmission;
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, items, NAME);
+    }
+
+    public boolean isLoaded(Long itemId) {
+        return items.getIfPresent(itemId) != null;
+    }
+
+    /**
+     * Занятые отрезки вещи внутри периода, пересекающиеся брони объединены
+     */
+    public List<long[]> busy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Entry entry = items.getIfPresent(itemId);
+        if (entry == null && !shared) {
+            entry = load(itemId);
+        }
+        if (entry == null || from.isBefore(entry.since)) {
+            return ItemIntervals.of(repository.findActivePeriodsByItemIdBetween(itemId, from, to))
+                    .busy(toMicros(from), toMicros(to));
+        }
+        return entry.busy(toMicros(from), toMicros(to));
+    }
+
+    public void add(Booking booking) {
+        changes.incrementAndGet();
+        Entry entry = items.getIfPresent(booking.getItem().getId());
+        if (entry != null) {
+            entry.add(booking.getId(), toMicros(booking.getStart()), toMicros(booking.getEnd()));
+        }
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        changes.incrementAndGet();
+        Entry entry = items.getIfPresent(itemId);
+        if (entry != null) {
+            entry.remove(bookingId);
+        }
+    }
+
+    public void evict(Long itemId) {
+        changes.incrementAndGet();
+        items.invalidate(itemId);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private Entry load(Long itemId) {
+        long startedAt = changes.get();
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry = new Entry(now, ItemIntervals.of(
+                repository.findActivePeriodsByItemIdBetween(itemId, now, FAR_FUTURE)));
+        log.info("Загружено {} активных бронирований вещи с ID={}", entry.size(), itemId);
+        if (changes.get() != startedAt) {
+            return entry;
+        }
+        Entry present = items.asMap().putIfAbsent(itemId, entry);
+        if (present != null) {
+            return present;
+        }
+        if (changes.get() != startedAt) {
+            items.asMap().remove(itemId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Периоды вещи, не закончившиеся к моменту since. Меняется на месте, чтобы изменение
+     * не продлевало срок жизни записи.
+     */
+    private static final class Entry {
+        private final LocalDateTime since;
+        private volatile ItemIntervals intervals;
+
+        Entry(LocalDateTime since, ItemIntervals intervals) {
+            this.since = since;
+            this.intervals = intervals;
+        }
+
+        int size() {
+            return intervals.size();
+        }
+
+        List<long[]> busy(long from, long to) {
+            return intervals.busy(from, to);
+        }
+
+        synchronized void add(long id, long start, long end) {
+            intervals = intervals.with(id, start, end);
+        }
+
+        synchronized void remove(long id) {
+            intervals = intervals.without(id);
+        }
+    }
+}
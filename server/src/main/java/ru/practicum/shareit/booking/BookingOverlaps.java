@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Отличает отказ базы из-за пересечения активных бронирований вещи (нарушение ограничения
+ * исключения, SQLState 23P01) от прочих нарушений целостности: внешних ключей, not null и т.п.
+ */
+final class BookingOverlaps {
+    static final String EXCLUSION_VIOLATION = "23P01";
+
+    private BookingOverlaps() {
+    }
+
+    static boolean isOverlap(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException
+                    && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
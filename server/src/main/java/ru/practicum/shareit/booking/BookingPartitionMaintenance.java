@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.lease.LeaseService;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * Заранее создаёт месячные секции bookings на months-ahead месяцев вперёд
+ * и отключает в архив секции старше archive-after-months месяцев.
+ * Нужна только для PostgreSQL; на нескольких узлах работает владелец аренды {@link #LEASE_NAME}.
+ * Ограничение исключения есть только у каждой секции, пересечения через границу месяца
+ * отсекает проверка под допуском к вещи, поэтому допуск должен быть общим для всех узлов - advisory.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking-partitions.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BookingPartitionMaintenance {
+    static final String LEASE_NAME = "booking-partitions";
+
+    private final BookingPartitions partitions;
+    private final LeaseService leaseService;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final Duration leaseDuration;
+
+    public BookingPartitionMaintenance(BookingPartitions partitions,
+                                       LeaseService leaseService,
+                                       ItemAdmission admission,
+                                       @Value("${shareit.booking-partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${shareit.booking-partitions.archive-after-months:12}")
+                                       int archiveAfterMonths,
+                                       @Value("${shareit.booking-partitions.lease:PT10M}") Duration leaseDuration) {
+        if (!(admission instanceof AdvisoryItemAdmission)) {
+            throw new IllegalStateException("Секционированные бронирования требуют "
+                    + ItemAdmission.MODE_PROPERTY + "=advisory: иначе пересечения через границу месяца "
+                    + "проверяются только внутри одного узла");
+        }
+        this.partitions = partitions;
+        this.leaseService = leaseService;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-partitions.delay:PT6H}", initialDelayString = "PT10S")
+    public void run() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+            log.debug("Аренда '{}' занята другим узлом", LEASE_NAME);
+            return;
+        }
+        try {
+            maintain(YearMonth.now());
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    void maintain(YearMonth current) {
+        Set<YearMonth> existing = partitions.findMonths();
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                partitions.create(month);
+                log.info("Создана секция бронирований {}", BookingPartitions.partitionName(month));
+            }
+        }
+        YearMonth cutoff = current.minusMonths(archiveAfterMonths);
+        for (YearMonth month : existing) {
+            if (month.isBefore(cutoff)) {
+                partitions.archive(month);
+                log.info("Секция бронирований {} отключена и перенесена в архив",
+                        BookingPartitions.partitionName(month));
+            }
+        }
+    }
+}
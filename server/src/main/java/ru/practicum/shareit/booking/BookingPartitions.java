@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Месячные секции таблицы bookings в PostgreSQL (см. db/migration/postgresql).
+ * Секция за месяц называется bookings_pГГГГ_ММ. Архивная секция отключается от bookings и переносится
+ * в схему archive: её строки уходят из рабочей таблицы, запросы и ограничения bookings их больше не видят,
+ * а бронирования, вставленные позже в архивный месяц, попадают в bookings_default.
+ * Ограничение исключения задаётся на каждой секции и не видит бронирований соседнего месяца:
+ * пересечение через границу месяца отсекает только проверка под {@link AdvisoryItemAdmission}.
+ * Общая несекционированная таблица интервалов закрыла бы и этот случай, но добавила бы
+ * вторую вставку и второй индекс GiST на каждое бронирование.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingPartitions {
+    static final String ARCHIVE_SCHEMA = "archive";
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'bookings_p'yyyy_MM");
+    private static final Pattern NAME_PATTERN = Pattern.compile("bookings_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    static String partitionName(YearMonth month) {
+        return NAME_FORMAT.format(month);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = NAME_PATTERN.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    /**
+     * Месяцы подключённых к bookings секций
+     */
+    public Set<YearMonth> findMonths() {
+        Set<YearMonth> months = new TreeSet<>();
+        jdbcTemplate.query("select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "where i.inhparent = 'bookings'::regclass",
+                rs -> {
+                    YearMonth month = monthOf(rs.getString(1));
+                    if (month != null) {
+                        months.add(month);
+                    }
+                });
+        return months;
+    }
+
+    /**
+     * Создаёт секцию за месяц. Бронирования этого месяца, уже попавшие в bookings_default,
+     * переносятся в новую секцию до её подключения.
+     */
+    @Transactional
+    public void create(YearMonth month) {
+        String table = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        jdbcTemplate.execute("create table " + table + " (like bookings including defaults)");
+        jdbcTemplate.update("with moved as (delete from bookings_default " +
+                        "where start_date >= ? and start_date < ? returning *) " +
+                        "insert into " + table + " select * from moved",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.execute("alter table bookings attach partition " + table +
+                " for values from ('" + BOUND_FORMAT.format(from) + "') to ('" + BOUND_FORMAT.format(to) + "')");
+        jdbcTemplate.execute("alter table " + table + " add constraint ex_" + table + "_item_period " +
+                "exclude using gist (item_id with =, tsrange(start_date, end_date) with &&) " +
+                "where (status in ('WAITING', 'APPROVED'))");
+    }
+
+    /**
+     * Отключает секцию от bookings и переносит её в схему archive: бронирования месяца
+     * остаются в archive.bookings_pГГГГ_ММ, но уходят из bookings
+     */
+    @Transactional
+    public void archive(YearMonth month) {
+        String table = partitionName(month);
+        jdbcTemplate.execute("alter table bookings detach partition " + table);
+        jdbcTemplate.execute("alter table " + table + " set schema " + ARCHIVE_SCHEMA);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Период бронирования без вещи и пользователя.
+ */
+public interface BookingPeriod {
+    Long getId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
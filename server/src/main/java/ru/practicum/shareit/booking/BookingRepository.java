@@ -1,68 +1,140 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
     /**
-     * ALL
+     * Есть ли у пользователя завершённое бронирование вещи
      */
-    @Query("select b from Booking as b where b.item.owner.id = :userId order by b.start desc ")
-    Page<Booking> findAllByOwnerId(Long userId, Pageable pageable);
+    @Query("select count(b) > 0 from Booking as b where b.booker.id = :userId and b.item.id = :itemId " +
+            "and b.start < :date and b.end < :date ")
+    boolean existsFinishedBooking(Long userId, Long itemId, LocalDateTime date);
 
     /**
-     * PAST booking
+     * Есть ли у вещи ожидающее или подтверждённое бронирование, пересекающее период
      */
-    @Query("select b from Booking as b where b.item.owner.id = :userId and b.end < :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingByOwnerIdAndEndBefore(Long userId, LocalDateTime date);
+    @Query("select count(b) > 0 from Booking as b where b.item.id = :itemId " +
+            "and b.bookingStatus in (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "and b.start < :end and b.end > :start ")
+    boolean existsOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
 
     /**
-     * FUTURE booking
+     * Вещи из списка, у которых есть ожидающее или подтверждённое бронирование, пересекающее период
      */
-    @Query("select b from Booking as b where b.item.owner.id = :userId and b.start > :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingByOwnerIdAndStartAfter(Long userId, LocalDateTime date);
+    @Query("select distinct b.item.id from Booking as b where b.item.id in :itemIds " +
+            "and b.bookingStatus in (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "and b.start < :end and b.end > :start ")
+    List<Long> findBusyItemIds(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end);
 
     /**
-     * CURRENT booking
+     * Периоды ожидающих и подтверждённых бронирований вещи, пересекающие [from, to), по возрастанию начала
      */
-    @Query("select b from Booking as b where b.item.owner.id = :userId and b.start < :date and b.end > :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingByOwnerIdAndStartIsBeforeAndEndAfter(Long userId, LocalDateTime date);
+    @Query("select b.id as id, b.start as start, b.end as end from Booking as b where b.item.id = :itemId " +
+            "and b.bookingStatus in (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "and b.start < :to and b.end > :from " +
+            "order by b.start ")
+    List<BookingPeriod> findActivePeriodsByItemIdBetween(Long itemId, LocalDateTime from, LocalDateTime to);
 
     /**
-     * WAITING ожид.подтв. REJECTED отклонён
+     * Ожидающие бронирования пользователя на вещь с заданными началами
      */
-    @Query("select b from Booking as b where b.item.owner.id = :userId and b.bookingStatus = :bookingStatus " +
-            "order by b.start desc ")
-    List<Booking> getBookingByOwner_IdAndStatus(Long userId, BookingStatus bookingStatus);
+    @Query("select b.id as id, b.start as start, b.end as end from Booking as b where b.item.id = :itemId " +
+            "and b.booker.id = :bookerId and b.start in :starts " +
+            "and b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "order by b.start ")
+    List<BookingPeriod> findWaitingByStarts(Long itemId, Long bookerId, Collection<LocalDateTime> starts);
 
-    @Query("select b from Booking as b where b.item.id = :itemId ")
-    List<Booking> findAllByItemId(Long itemId);
+    /**
+     * Сведения для решения владельца по списку бронирований
+     */
+    @Query("select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.bookingStatus as status, " +
+            "b.end as end from Booking as b where b.id in :ids ")
+    List<BookingDecisionView> findDecisionViews(Collection<Long> ids);
 
-    @Query("select b from Booking as b where b.booker.id = :userId and b.end < :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingForBookerAndEndBefore(Long userId, LocalDateTime date);
+    /**
+     * Перевод бронирования в новый статус, только если его статус всё ещё равен expected
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking as b set b.bookingStatus = :status where b.id = :id and b.bookingStatus = :expected")
+    int compareAndSetStatus(Long id, BookingStatus expected, BookingStatus status);
 
-    @Query("select b from Booking as b where b.booker.id = :userId and b.start < :date and b.end > :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingForBookerAndStartIsBeforeAndEndAfter(Long userId, LocalDateTime date);
+    /**
+     * Ожидающие бронирования, начало которых уже прошло, от самых старых
+     */
+    @Query("select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.start as start " +
+            "from Booking as b " +
+            "where b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.WAITING and b.start < :now " +
+            "order by b.start, b.id ")
+    List<StaleBookingView> findStaleWaiting(LocalDateTime now, Pageable page);
 
-    @Query("select b from Booking as b where b.booker.id = :userId and b.start > :date " +
-            "order by b.start desc ")
-    List<Booking> getBookingForBookerIdAndStartAfter(Long userId, LocalDateTime date);
+    /**
+     * Перевод ещё ожидающих бронирований в EXPIRED
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking as b set b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.EXPIRED " +
+            "where b.id in :ids and b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.WAITING ")
+    int expireWaiting(Collection<Long> ids);
 
-    @Query("select b from Booking as b where b.booker.id = :userId order by b.start desc ")
-    Page<Booking> findAllByBookerId(Long userId, Pageable pageable);
+    /**
+     * Число ожидающих и отклонённых бронирований вещей владельца одним проходом
+     */
+    @Query("select " +
+            "coalesce(sum(case when b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "then 1 else 0 end), 0) as waiting, " +
+            "coalesce(sum(case when b.bookingStatus = ru.practicum.shareit.booking.BookingStatus.REJECTED " +
+            "then 1 else 0 end), 0) as rejected " +
+            "from Booking as b where b.item.owner.id = :ownerId ")
+    BookingStatusCounts countStatusesByOwnerId(Long ownerId);
 
-    @Query("select b from Booking as b where b.booker.id = :userId and b.bookingStatus = :bookingStatus " +
-            "order by b.start desc ")
-    List<Booking> getBookingForBookerAndStatus(Long userId, BookingStatus bookingStatus);
-}
+    /**
+     * Число всех, текущих, завершённых и будущих бронирований вещей владельца одним проходом
+     */
+    @Query("select count(b) as total, " +
+            "coalesce(sum(case when b.start < :now and b.end > :now then 1 else 0 end), 0) as current, " +
+            "coalesce(sum(case when b.end < :now then 1 else 0 end), 0) as past, " +
+            "coalesce(sum(case when b.start > :now then 1 else 0 end), 0) as future " +
+            "from Booking as b where b.item.owner.id = :ownerId ")
+    BookingTimeCounts countByOwnerId(Long ownerId, LocalDateTime now);
 
+    /**
+     * Последнее начавшееся бронирование вещи
+     */
+    Optional<Booking> findFirstByItem_IdAndStartBeforeOrderByStartDesc(Long itemId, LocalDateTime date);
+
+    /**
+     * Ближайшее будущее бронирование вещи с допустимым статусом
+     */
+    Optional<Booking> findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc(
+            Long itemId, LocalDateTime date, Collection<BookingStatus> excludedStatuses);
+
+    /**
+     * Последнее начавшееся бронирование для каждой вещи из списка
+     */
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end " +
+            "from Booking as b where b.item.id in :itemIds and b.start = " +
+            "(select max(l.start) from Booking as l where l.item.id = b.item.id and l.start < :date) ")
+    List<ItemBookingView> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime date);
+
+    /**
+     * Ближайшее будущее бронирование (кроме отклонённых и отменённых) для каждой вещи из списка
+     */
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end " +
+            "from Booking as b where b.item.id in :itemIds " +
+            "and b.bookingStatus not in (ru.practicum.shareit.booking.BookingStatus.REJECTED, " +
+            "ru.practicum.shareit.booking.BookingStatus.CANCELED) " +
+            "and b.start = (select min(n.start) from Booking as n where n.item.id = b.item.id and n.start > :date " +
+            "and n.bookingStatus not in (ru.practicum.shareit.booking.BookingStatus.REJECTED, " +
+            "ru.practicum.shareit.booking.BookingStatus.CANCELED)) ")
+    List<ItemBookingView> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime date);
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.SearchStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingSearchRepository {
+    /**
+     * Бронирования пользователя в заданной роли и состоянии, упорядоченные по (start desc, id desc).
+     * Отбор, сортировка и ограничение страницы выполняются в базе данных,
+     * из вещи и автора бронирования выбираются только поля ответа.
+     */
+    List<BookingOutcomeDto> search(BookingRole role, Long userId, SearchStatus state, LocalDateTime now,
+                                   BookingCursor cursor, Pageable page);
+}
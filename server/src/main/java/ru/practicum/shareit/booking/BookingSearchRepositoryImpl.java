@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingOutcomeDto> search(BookingRole role, Long userId, SearchStatus state, LocalDateTime now,
+                                          BookingCursor cursor, Pageable page) {
+        Specification<Booking> specification = BookingSpecifications.forRole(role, userId)
+                .and(BookingSpecifications.inState(state, now))
+                .and(BookingSpecifications.before(cursor));
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingOutcomeDto> query = cb.createQuery(BookingOutcomeDto.class);
+        Root<Booking> root = query.from(Booking.class);
+        Join<Booking, Item> item = BookingSpecifications.item(root);
+        query.select(cb.construct(BookingOutcomeDto.class,
+                        root.get("id"), root.get("start"), root.get("end"),
+                        item.get("id"), item.get("name"), root.get("booker").get("id"),
+                        root.get("bookingStatus")))
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(cb.desc(root.get("start")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+}
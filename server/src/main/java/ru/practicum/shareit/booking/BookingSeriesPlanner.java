@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.booking.dto.SeriesFrequency;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разворачивает повторяющееся бронирование в список периодов.
+ */
+@Component
+public class BookingSeriesPlanner {
+    private final int maxOccurrences;
+
+    public BookingSeriesPlanner(@Value("${shareit.booking-series.max-occurrences:100}") int maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    public List<PeriodDto> expand(BookingSeriesDto series) {
+        if ((series.getCount() == null) == (series.getUntil() == null)) {
+            throw new ValidationException("Для серии нужно указать либо count, либо until.");
+        }
+        if (!series.getStart().isBefore(series.getEnd())) {
+            throw new ValidationException("Время начала бронирования не может быть позже окончания.");
+        }
+        if (series.getUntil() != null && series.getUntil().isBefore(series.getStart())) {
+            throw new ValidationException("Серия не может закончиться раньше первого бронирования.");
+        }
+        if (series.getCount() != null && series.getCount() > maxOccurrences) {
+            throw new ValidationException("В серии не может быть больше " + maxOccurrences + " бронирований.");
+        }
+        int interval = series.getInterval() == null ? 1 : series.getInterval();
+        if (series.getEnd().isAfter(shift(series.getStart(), series.getFrequency(), interval))) {
+            throw new ValidationException("Бронирования серии не должны пересекаться между собой.");
+        }
+        List<PeriodDto> occurrences = new ArrayList<>();
+        for (int i = 0; series.getCount() == null || i < series.getCount(); i++) {
+            LocalDateTime start = shift(series.getStart(), series.getFrequency(), i * interval);
+            if (series.getUntil() != null && start.isAfter(series.getUntil())) {
+                break;
+            }
+            if (occurrences.size() == maxOccurrences) {
+                throw new ValidationException("В серии не может быть больше " + maxOccurrences + " бронирований.");
+            }
+            occurrences.add(new PeriodDto(start, shift(series.getEnd(), series.getFrequency(), i * interval)));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Время округляется до микросекунд, как его хранит база, чтобы вставленные бронирования находились по началу
+     */
+    private static LocalDateTime shift(LocalDateTime time, SeriesFrequency frequency, int steps) {
+        LocalDateTime shifted = frequency == SeriesFrequency.DAILY ? time.plusDays(steps) : time.plusWeeks(steps);
+        return shifted.truncatedTo(ChronoUnit.MICROS);
+    }
+}
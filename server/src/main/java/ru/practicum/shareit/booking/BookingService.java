@@ -1,21 +1,65 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.SearchStatus;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingOutcomeDto saveNewBooking(LocalDateTime start, LocalDateTime end, Long itemId, Long userId);
 
+    /**
+     * Создаёт все бронирования серии или ни одного, если хотя бы одно пересекается с существующими
+     */
+    List<BookingOutcomeDto> saveBookingSeries(Long userId, BookingSeriesDto series);
+
     BookingOutcomeDto updateBooking(long bookingId, Long userId, Boolean approved);
 
+    List<BookingDecisionResultDto> decideBookings(Long userId, List<BookingDecisionDto> decisions);
+
     BookingOutcomeDto getBookingById(Long userId, long bookingId);
 
-    List<Booking> getBookingsByUser(Long userId, SearchStatus state, int from, int size);
+    List<BookingOutcomeDto> getBookingsByUser(Long userId, SearchStatus state, int from, int size);
 
     List<BookingOutcomeDto> getBookingsByOwner(Long userId, SearchStatus state, int from, int size);
 
-    List<Booking> getBookingsForUser(Long itemId);
+    List<BookingOutcomeDto> getBookingsByUserAfter(Long userId, SearchStatus state, BookingCursor cursor, int size);
+
+    List<BookingOutcomeDto> getBookingsByOwnerAfter(Long userId, SearchStatus state, BookingCursor cursor, int size);
+
+    BookingSummaryDto getOwnerSummary(Long userId);
+
+    /**
+     * Подписка владельца на создание и смену статуса бронирований его вещей: события уходят в sink
+     */
+    BookingSubscription subscribeOwnerBookings(Long userId, BookingEventSink sink);
+
+    /**
+     * Импорт бронирований вещей пользователя из NDJSON, ошибочные строки пропускаются
+     */
+    BookingImportResultDto importBookings(Long userId, InputStream lines);
+
+    boolean hasFinishedBooking(Long userId, Long itemId);
+
+    AvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
+    Booking getLastBooking(Long itemId);
+
+    Booking getNextBooking(Long itemId);
+
+    Map<Long, BookingDto> getLastBookings(Collection<Long> itemIds);
+
+    Map<Long, BookingDto> getNextBookings(Collection<Long> itemIds);
 }
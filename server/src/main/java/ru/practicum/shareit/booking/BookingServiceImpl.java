@@ -1,25 +1,45 @@
 package ru.practicum.shareit.booking;
 
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.DecisionOutcome;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.SearchStatus;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,25 +49,112 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository repository;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingIntervalIndex intervalIndex;
+    private final OwnerBookingCounters ownerCounters;
+    private final OwnerBookingStream ownerStream;
+    private final ApplicationEventPublisher events;
+    private final ItemAdmission admission;
+    private final BookingImporter importer;
+    private final BookingSeriesPlanner seriesPlanner;
+    private final BookingBatchRepository batchRepository;
 
     @Override
     public BookingOutcomeDto saveNewBooking(LocalDateTime start, LocalDateTime end, Long itemId, Long userId) {
         User booker = UserMapper.toUser(userService.getUserById(userId));
         BookingStatus bookingStatus = BookingStatus.WAITING;
         Item item = itemService.getItemById(userId, itemId);
-        if (item.getOwner().getId().equals(booker.getId())) {
-            throw new DataNotFoundException("Вещь не может быть забронирована её владельцем.");
-        }
-        if (item.getAvailable() != ru.practicum.shareit.item.model.Status.AVAILABLE) {
-            throw new ValidationException("Вещь уже забронирована.");
-        }
+        checkBookable(item, booker);
         if (start.isAfter(end) || start.equals(end)) {
             throw new ValidationException("Время начала бронирования не может быть позже окончания.");
         }
-        return BookingMapper.toBookingDto(repository.save(new Booking(null, start, end, item, booker, bookingStatus)));
+        try {
+            return admission.admit(itemId, () -> {
+                if (repository.existsOverlapping(itemId, start, end)) {
+                    throw new ValidationException("Вещь уже забронирована на это время.");
+                }
+                Booking booking = repository.save(new Booking(null, start, end, item, booker, bookingStatus));
+                AfterCommit.run(() -> {
+                    intervalIndex.add(booking);
+                    ownerCounters.onStatusChange(item.getOwner().getId(), null, bookingStatus);
+                });
+                events.publishEvent(new BookingEvent(booking.getId(), itemId, item.getOwner().getId(),
+                        bookingStatus));
+                return BookingMapper.toBookingDto(booking);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!BookingOverlaps.isOverlap(e)) {
+                throw e;
+            }
+            log.info("Пересечение бронирований вещи с ID={} отклонено базой данных", itemId);
+            throw new ValidationException("Вещь уже забронирована на это время.");
+        }
     }
 
+    /**
+     * Пересечения всех бронирований серии проверяются одним запросом по диапазону серии,
+     * бронирования вставляются одним пакетом в одной транзакции
+     */
     @Override
+    public List<BookingOutcomeDto> saveBookingSeries(Long userId, BookingSeriesDto series) {
+        User booker = UserMapper.toUser(userService.getUserById(userId));
+        Long itemId = series.getItemId();
+        Item item = itemService.getItemById(userId, itemId);
+        checkBookable(item, booker);
+        List<PeriodDto> occurrences = seriesPlanner.expand(series);
+        LocalDateTime from = occurrences.get(0).getStart();
+        LocalDateTime to = occurrences.get(occurrences.size() - 1).getEnd();
+        try {
+            return admission.admit(itemId, () -> {
+                List<BookingPeriod> busy = repository.findActivePeriodsByItemIdBetween(itemId, from, to);
+                List<String> conflicts = occurrences.stream()
+                        .filter(occurrence -> busy.stream().anyMatch(period ->
+                                period.getStart().isBefore(occurrence.getEnd())
+                                        && period.getEnd().isAfter(occurrence.getStart())))
+                        .map(occurrence -> occurrence.getStart().toString())
+                        .collect(Collectors.toList());
+                if (!conflicts.isEmpty()) {
+                    throw new ValidationException("Вещь уже забронирована на это время: "
+                            + String.join(", ", conflicts));
+                }
+                batchRepository.insert(occurrences.stream()
+                        .map(occurrence -> BookingBatchRepository.row(occurrence.getStart(), occurrence.getEnd(),
+                                itemId, booker.getId(), BookingStatus.WAITING))
+                        .collect(Collectors.toList()));
+                List<BookingPeriod> saved = repository.findWaitingByStarts(itemId, booker.getId(),
+                        occurrences.stream().map(PeriodDto::getStart).collect(Collectors.toList()));
+                List<Booking> bookings = new ArrayList<>(saved.size());
+                List<BookingOutcomeDto> result = new ArrayList<>(saved.size());
+                for (BookingPeriod period : saved) {
+                    Booking booking = new Booking(period.getId(), period.getStart(), period.getEnd(), item, booker,
+                            BookingStatus.WAITING);
+                    bookings.add(booking);
+                    events.publishEvent(new BookingEvent(booking.getId(), itemId, item.getOwner().getId(),
+                            BookingStatus.WAITING));
+                    result.add(BookingMapper.toBookingDto(booking));
+                }
+                AfterCommit.run(() -> bookings.forEach(booking -> {
+                    intervalIndex.add(booking);
+                    ownerCounters.onStatusChange(item.getOwner().getId(), null, BookingStatus.WAITING);
+                }));
+                log.info("Пользователь с ID={} забронировал вещь с ID={} серией из {} бронирований", userId,
+                        itemId, result.size());
+                return result;
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!BookingOverlaps.isOverlap(e)) {
+                throw e;
+            }
+            log.info("Пересечение бронирований вещи с ID={} отклонено базой данных", itemId);
+            throw new ValidationException("Вещь уже забронирована на это время.");
+        }
+    }
+
+    /**
+     * Переход статуса выполняется одним условным UPDATE: если статус успели изменить параллельно,
+     * обновится ноль строк и запрос завершится так же, как повторное решение по бронированию
+     */
+    @Override
+    @Transactional
     public BookingOutcomeDto updateBooking(long bookingId, Long userId, Boolean approved) {
         UserDto booker = userService.getUserById(userId);
         if (booker == null) {
@@ -55,14 +162,18 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking booking = repository.findById(bookingId).orElseThrow(() -> new DataNotFoundException("Бронирование не найдено!"));
         Long itemIdFromBooking = booking.getItem().getId();
-        boolean itemValid = itemService.getItems(userId).stream().anyMatch(item -> item.getId().equals(itemIdFromBooking));
+        Long ownerId = booking.getItem().getOwner().getId();
+        BookingStatus previousStatus = booking.getBookingStatus();
+        BookingStatus newStatus;
+        String conflictMessage;
+        boolean itemValid = isItemOwner(booking, userId);
         if (booking.getEnd().isBefore(LocalDateTime.now())) {
             throw new ValidationException("Время бронирования истекло!");
         }
         if (booking.getBooker().getId().equals(userId)) {
             if (!approved) {
-                booking.setBookingStatus(BookingStatus.CANCELED);
-                log.info("Бронирование отменено.");
+                newStatus = BookingStatus.CANCELED;
+                conflictMessage = "Статус бронирования уже изменён.";
             } else {
                 throw new DataNotFoundException("Только владелец вещи может подтвердить бронирование!");
             }
@@ -70,13 +181,8 @@ public class BookingServiceImpl implements BookingService {
             if (!(booking.getBookingStatus().equals(BookingStatus.WAITING))) {
                 throw new ValidationException("Не новое бронирование, решение уже принято");
             }
-            if (approved) {
-                booking.setBookingStatus(BookingStatus.APPROVED);
-                log.info("Пользователь с ID={} подтвердил бронирование с ID={}", userId, bookingId);
-            } else {
-                booking.setBookingStatus(BookingStatus.REJECTED);
-                log.info("Пользователь с ID={} отклонил бронирование с ID={}", userId, bookingId);
-            }
+            newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            conflictMessage = "Не новое бронирование, решение уже принято";
         } else {
             if (booking.getBookingStatus().equals(BookingStatus.CANCELED)) {
                 throw new ValidationException("Бронирование было отменено!");
@@ -84,7 +190,85 @@ public class BookingServiceImpl implements BookingService {
                 throw new ValidationException("Подтвердить бронирование может только владелец вещи!");
             }
         }
-        return BookingMapper.toBookingDto(repository.save(booking));
+        if (repository.compareAndSetStatus(bookingId, previousStatus, newStatus) == 0) {
+            log.info("Статус бронирования с ID={} изменён параллельным запросом", bookingId);
+            throw new ValidationException(conflictMessage);
+        }
+        booking.setBookingStatus(newStatus);
+        log.info("Пользователь с ID={} перевёл бронирование с ID={} из {} в {}", userId, bookingId,
+                previousStatus, newStatus);
+        AfterCommit.run(() -> {
+            if (newStatus == BookingStatus.REJECTED || newStatus == BookingStatus.CANCELED) {
+                intervalIndex.remove(itemIdFromBooking, bookingId);
+            }
+            ownerCounters.onStatusChange(ownerId, previousStatus, newStatus);
+        });
+        events.publishEvent(new BookingEvent(bookingId, itemIdFromBooking, ownerId, newStatus));
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> decideBookings(Long userId, List<BookingDecisionDto> decisions) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new ValidationException("Для каждого решения нужны bookingId и approved.");
+            }
+            if (approvals.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Бронирование с ID=" + decision.getBookingId()
+                        + " указано несколько раз.");
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDecisionView> views = repository.findDecisionViews(approvals.keySet()).stream()
+                .collect(Collectors.toMap(BookingDecisionView::getId, Function.identity()));
+        Map<Long, DecisionOutcome> outcomes = new HashMap<>();
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        approvals.forEach((bookingId, approved) -> {
+            BookingDecisionView view = views.get(bookingId);
+            if (view == null) {
+                outcomes.put(bookingId, DecisionOutcome.NOT_FOUND);
+            } else if (!view.getOwnerId().equals(userId)) {
+                outcomes.put(bookingId, DecisionOutcome.NOT_OWNER);
+            } else if (view.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(bookingId, DecisionOutcome.NOT_WAITING);
+            } else if (!view.getEnd().isAfter(now)) {
+                outcomes.put(bookingId, DecisionOutcome.EXPIRED);
+            } else {
+                (approved ? toApprove : toReject).add(bookingId);
+            }
+        });
+        Map<Long, BookingStatus> statuses = new LinkedHashMap<>();
+        toApprove.forEach(id -> statuses.put(id, BookingStatus.APPROVED));
+        toReject.forEach(id -> statuses.put(id, BookingStatus.REJECTED));
+        Set<Long> changed = statuses.isEmpty() ? Set.of() : batchRepository.decide(userId, statuses, now);
+        List<Long> approved = toApprove.stream().filter(changed::contains).collect(Collectors.toList());
+        List<Long> rejected = toReject.stream().filter(changed::contains).collect(Collectors.toList());
+        statuses.keySet().forEach(id -> outcomes.put(id, DecisionOutcome.NOT_WAITING));
+        approved.forEach(id -> outcomes.put(id, DecisionOutcome.APPROVED));
+        rejected.forEach(id -> outcomes.put(id, DecisionOutcome.REJECTED));
+        approved.forEach(id -> events.publishEvent(new BookingEvent(id, views.get(id).getItemId(), userId,
+                BookingStatus.APPROVED)));
+        rejected.forEach(id -> events.publishEvent(new BookingEvent(id, views.get(id).getItemId(), userId,
+                BookingStatus.REJECTED)));
+        AfterCommit.run(() -> {
+            approved.forEach(id -> ownerCounters.onStatusChange(userId, BookingStatus.WAITING,
+                    BookingStatus.APPROVED));
+            rejected.forEach(id -> {
+                intervalIndex.remove(views.get(id).getItemId(), id);
+                ownerCounters.onStatusChange(userId, BookingStatus.WAITING, BookingStatus.REJECTED);
+            });
+        });
+        log.info("Пользователь с ID={} принял решение по {} бронированиям, изменено {}", userId,
+                approvals.size(), changed.size());
+        return approvals.keySet().stream()
+                .map(id -> new BookingDecisionResultDto(id, outcomes.getOrDefault(id, DecisionOutcome.NOT_FOUND)))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -94,11 +278,7 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking booking = repository.findById(bookingId)
                 .orElseThrow(() -> new DataNotFoundException("Вещь с таким id не найдена."));
-        List<Item> items = itemService.findItemsByOwnerId(userId);
-        boolean isItemOwner = items.stream().anyMatch(
-                item -> Objects.equals(item.getId(), booking.getItem().getId())
-        );
-        if (booking.getBooker().getId().equals(userId) || (isItemOwner)) {
+        if (booking.getBooker().getId().equals(userId) || isItemOwner(booking, userId)) {
             return BookingMapper.toBookingDto(booking);
         } else {
             throw new DataNotFoundException("Видеть данные бронирования может только владелец вещи" +
@@ -107,34 +287,12 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getBookingsByUser(Long userId, SearchStatus state, int from, int size) {
+    public List<BookingOutcomeDto> getBookingsByUser(Long userId, SearchStatus state, int from, int size) {
         if (userService.getUserById(userId) == null) {
             throw new DataNotFoundException("Пользователь не найден.");
         }
-        List<Booking> bookings;
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        switch (state) {
-            case CURRENT:
-                bookings = repository.getBookingForBookerAndStartIsBeforeAndEndAfter(userId, LocalDateTime.now());
-                break;
-            case PAST:
-                bookings = repository.getBookingForBookerAndEndBefore(userId, LocalDateTime.now());
-                break;
-            case FUTURE:
-                bookings = repository.getBookingForBookerIdAndStartAfter(userId, LocalDateTime.now());
-                break;
-            case WAITING:
-                bookings = repository.getBookingForBookerAndStatus(userId, BookingStatus.WAITING);
-                break;
-            case REJECTED:
-                bookings = repository.getBookingForBookerAndStatus(userId, BookingStatus.REJECTED);
-                break;
-            default:
-                bookings = repository.findAllByBookerId(userId,
-                                PageRequest.of(from, size, sort))
-                        .getContent();
-        }
-        return bookings;
+        return repository.search(BookingRole.BOOKER, userId, state, LocalDateTime.now(), null,
+                PageRequest.of(from, size));
     }
 
     @Override
@@ -142,34 +300,135 @@ public class BookingServiceImpl implements BookingService {
         if (userService.getUserById(userId) == null) {
             throw new DataNotFoundException("Пользователь не найден.");
         }
-        List<Booking> bookings;
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        switch (state) {
-            case CURRENT:
-                bookings = repository.getBookingByOwnerIdAndStartIsBeforeAndEndAfter(userId, LocalDateTime.now());
-                break;
-            case PAST:
-                bookings = repository.getBookingByOwnerIdAndEndBefore(userId, LocalDateTime.now());
-                break;
-            case FUTURE:
-                bookings = repository.getBookingByOwnerIdAndStartAfter(userId, LocalDateTime.now());
-                break;
-            case WAITING:
-                bookings = repository.getBookingByOwner_IdAndStatus(userId, BookingStatus.WAITING);
-                break;
-            case REJECTED:
-                bookings = repository.getBookingByOwner_IdAndStatus(userId, BookingStatus.REJECTED);
-                break;
-            default:
-                bookings = repository.findAllByOwnerId(userId,
-                                PageRequest.of(from, size, sort))
-                        .getContent();
-        }
-        return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
-    }
-
-    @Override
-    public List<Booking> getBookingsForUser(Long itemId) {
-        return repository.findAllByItemId(itemId);
+        return repository.search(BookingRole.OWNER, userId, state, LocalDateTime.now(), null,
+                PageRequest.of(from, size));
+    }
+
+    @Override
+    public List<BookingOutcomeDto> getBookingsByUserAfter(Long userId, SearchStatus state, BookingCursor cursor,
+                                                          int size) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        return repository.search(BookingRole.BOOKER, userId, state, LocalDateTime.now(), cursor,
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    public List<BookingOutcomeDto> getBookingsByOwnerAfter(Long userId, SearchStatus state, BookingCursor cursor,
+                                                           int size) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        return repository.search(BookingRole.OWNER, userId, state, LocalDateTime.now(), cursor,
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    public BookingSubscription subscribeOwnerBookings(Long userId, BookingEventSink sink) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        return ownerStream.subscribe(userId, sink);
+    }
+
+    @Override
+    public BookingImportResultDto importBookings(Long userId, InputStream lines) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        return importer.importBookings(userId, lines);
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(Long userId) {
+        if (userService.getUserById(userId) == null) {
+            throw new DataNotFoundException("Пользователь не найден.");
+        }
+        BookingTimeCounts counts = repository.countByOwnerId(userId, LocalDateTime.now());
+        return new BookingSummaryDto(counts.getTotal(), counts.getCurrent(), counts.getPast(), counts.getFuture(),
+                ownerCounters.count(userId, BookingStatus.WAITING), ownerCounters.count(userId, BookingStatus.REJECTED));
+    }
+
+    @Override
+    public boolean hasFinishedBooking(Long userId, Long itemId) {
+        return repository.existsFinishedBooking(userId, itemId, LocalDateTime.now());
+    }
+
+    @Override
+    public AvailabilityDto getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания.");
+        }
+        if (!intervalIndex.isLoaded(itemId)) {
+            itemService.getItemById(userId, itemId);
+        }
+        List<PeriodDto> busy = new ArrayList<>();
+        List<PeriodDto> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (long[] period : intervalIndex.busy(itemId, from, to)) {
+            LocalDateTime busyStart = BookingIntervalIndex.fromMicros(period[0]);
+            LocalDateTime busyEnd = BookingIntervalIndex.fromMicros(period[1]);
+            if (freeStart.isBefore(busyStart)) {
+                free.add(new PeriodDto(freeStart, busyStart));
+            }
+            busy.add(new PeriodDto(busyStart, busyEnd));
+            freeStart = busyEnd;
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new PeriodDto(freeStart, to));
+        }
+        return new AvailabilityDto(itemId, from, to, free, busy);
+    }
+
+    @Override
+    public Booking getLastBooking(Long itemId) {
+        return repository.findFirstByItem_IdAndStartBeforeOrderByStartDesc(itemId, LocalDateTime.now())
+                .orElse(null);
+    }
+
+    @Override
+    public Booking getNextBooking(Long itemId) {
+        return repository.findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc(
+                itemId, LocalDateTime.now(), List.of(BookingStatus.REJECTED, BookingStatus.CANCELED)).orElse(null);
+    }
+
+    @Override
+    public Map<Long, BookingDto> getLastBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return groupByItem(repository.findLastBookingsByItemIds(itemIds, LocalDateTime.now()));
+    }
+
+    @Override
+    public Map<Long, BookingDto> getNextBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return groupByItem(repository.findNextBookingsByItemIds(itemIds, LocalDateTime.now()));
+    }
+
+    private void checkBookable(Item item, User booker) {
+        if (item.getOwner().getId().equals(booker.getId())) {
+            throw new DataNotFoundException("Вещь не может быть забронирована её владельцем.");
+        }
+        if (item.getAvailable() != ru.practicum.shareit.item.model.Status.AVAILABLE) {
+            throw new ValidationException("Вещь уже забронирована.");
+        }
+    }
+
+    /**
+     * Владелец вещи приходит вместе с бронированием, отдельный запрос не нужен
+     */
+    private boolean isItemOwner(Booking booking, Long userId) {
+        return booking.getItem().getOwner().getId().equals(userId);
+    }
+
+    private Map<Long, BookingDto> groupByItem(List<ItemBookingView> bookings) {
+        return bookings.stream().collect(Collectors.toMap(
+                ItemBookingView::getItemId,
+                b -> new BookingDto(b.getId(), b.getBookerId(), b.getStart(), b.getEnd()),
+                (b1, b2) -> b1.getId() < b2.getId() ? b1 : b2));
     }
 }
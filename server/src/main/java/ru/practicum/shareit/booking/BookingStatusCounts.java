@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Число ожидающих и отклонённых бронирований.
+ */
+public interface BookingStatusCounts {
+    Long getWaiting();
+
+    Long getRejected();
+}
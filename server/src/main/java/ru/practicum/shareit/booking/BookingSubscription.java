@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Подписка владельца на события бронирований; отменяется, когда клиент отключился
+ */
+public interface BookingSubscription {
+    void cancel();
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Число бронирований по периодам относительно текущего момента.
+ */
+public interface BookingTimeCounts {
+    Long getTotal();
+
+    Long getCurrent();
+
+    Long getPast();
+
+    Long getFuture();
+}
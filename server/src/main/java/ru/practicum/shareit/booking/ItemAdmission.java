@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Допуск к созданию бронирований вещи: действия по одной вещи выполняются по очереди,
+ * по разным вещам - параллельно. Действие выполняется в транзакции, которая фиксируется
+ * до того, как вещь получит следующее действие. Режим striped действует в пределах узла
+ * и годится только для одного узла или несекционированной таблицы bookings.
+ */
+public interface ItemAdmission {
+    String MODE_PROPERTY = "shareit.booking-admission.mode";
+
+    <T> T admit(Long itemId, Supplier<T> action);
+
+    /**
+     * Допуск сразу к нескольким вещам: очереди занимаются в порядке возрастания,
+     * действие выполняется в одной транзакции и держит все очереди до её фиксации
+     */
+    <T> T admitAll(Collection<Long> itemIds, Supplier<T> action);
+}
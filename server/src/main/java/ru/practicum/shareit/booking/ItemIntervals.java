@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Неизменяемый набор занятых периодов одной вещи, отсортированный по началу.
+ * Время хранится в микросекундах (см. {@link BookingIntervalIndex#toMicros}),
+ * maxEnds[i] - наибольшее окончание среди первых i + 1 периодов.
+ */
+final class ItemIntervals {
+    static final ItemIntervals EMPTY = new ItemIntervals(new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private ItemIntervals(long[] ids, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ends.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    /**
+     * Периоды должны быть отсортированы по началу
+     */
+    static ItemIntervals of(List<BookingPeriod> periods) {
+        long[] ids = new long[periods.size()];
+        long[] starts = new long[periods.size()];
+        long[] ends = new long[periods.size()];
+        for (int i = 0; i < periods.size(); i++) {
+            BookingPeriod period = periods.get(i);
+            ids[i] = period.getId();
+            starts[i] = BookingIntervalIndex.toMicros(period.getStart());
+            ends[i] = BookingIntervalIndex.toMicros(period.getEnd());
+        }
+        return new ItemIntervals(ids, starts, ends);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    ItemIntervals with(long id, long start, long end) {
+        ItemIntervals base = without(id);
+        int position = base.firstStartAtOrAfter(start);
+        return new ItemIntervals(insert(base.ids, position, id), insert(base.starts, position, start),
+                insert(base.ends, position, end));
+    }
+
+    ItemIntervals without(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return new ItemIntervals(remove(ids, i), remove(starts, i), remove(ends, i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Занятые отрезки внутри [from, to): пересекающиеся периоды объединены и обрезаны по границам запроса.
+     */
+    List<long[]> busy(long from, long to) {
+        List<long[]> result = new ArrayList<>();
+        int last = firstStartAtOrAfter(to);
+        for (int i = firstMaxEndAfter(from); i < last; i++) {
+            if (ends[i] <= from) {
+                continue;
+            }
+            long start = Math.max(starts[i], from);
+            long end = Math.min(ends[i], to);
+            long[] previous = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (previous != null && start <= previous[1]) {
+                previous[1] = Math.max(previous[1], end);
+            } else {
+                result.add(new long[]{start, end});
+            }
+        }
+        return result;
+    }
+
+    private int firstStartAtOrAfter(long time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstMaxEndAfter(long time) {
+        int low = 0;
+        int high = maxEnds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (maxEnds[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long[] insert(long[] source, int position, long value) {
+        long[] result = Arrays.copyOf(source, source.length + 1);
+        System.arraycopy(source, position, result, position + 1, source.length - position);
+        result[position] = value;
+        return result;
+    }
+
+    private static long[] remove(long[] source, int position) {
+        long[] result = Arrays.copyOf(source, source.length - 1);
+        System.arraycopy(source, position + 1, result, position, source.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Число ожидающих и отклонённых бронирований вещей владельца. Считывается из базы одним запросом
+ * при первом обращении к владельцу, дальше обновляется при смене статуса на этом узле.
+ * Изменения с других узлов сюда не попадают, поэтому запись живёт не дольше ttl с момента чтения.
+ */
+@Component
+public class OwnerBookingCounters {
+    static final String NAME = "owner-booking-counters";
+
+    private final BookingRepository repository;
+    private final Cache<Long, OwnerCounts> owners;
+
+    public OwnerBookingCounters(BookingRepository repository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking-counters.max-size:10000}") long maxSize,
+                                @Value("${shareit.booking-counters.ttl:PT30S}") Duration ttl) {
+        this.repository = repository;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, owners, NAME);
+    }
+
+    public int count(Long ownerId, BookingStatus status) {
+        return owners.get(ownerId, this::load).count(status);
+    }
+
+    /**
+     * Бронирование вещи владельца перешло из статуса from (null - новое) в статус to.
+     * Запись меняется на месте, чтобы изменение не продлевало её срок жизни.
+     */
+    public void onStatusChange(Long ownerId, BookingStatus from, BookingStatus to) {
+        OwnerCounts counts = owners.getIfPresent(ownerId);
+        if (counts != null) {
+            counts.move(from, to);
+        }
+    }
+
+    public void evict(Long ownerId) {
+        owners.invalidate(ownerId);
+    }
+
+    private OwnerCounts load(Long ownerId) {
+        BookingStatusCounts counts = repository.countStatusesByOwnerId(ownerId);
+        return new OwnerCounts(counts.getWaiting().intValue(), counts.getRejected().intValue());
+    }
+
+    private static final class OwnerCounts {
+        private int waiting;
+        private int rejected;
+
+        OwnerCounts(int waiting, int rejected) {
+            this.waiting = waiting;
+            this.rejected = rejected;
+        }
+
+        synchronized int count(BookingStatus status) {
+            switch (status) {
+                case WAITING:
+                    return waiting;
+                case REJECTED:
+                    return rejected;
+                default:
+                    return 0;
+            }
+        }
+
+        synchronized void move(BookingStatus from, BookingStatus to) {
+            add(from, -1);
+            add(to, 1);
+        }
+
+        private void add(BookingStatus status, int delta) {
+            if (status == BookingStatus.WAITING) {
+                waiting = Math.max(0, waiting + delta);
+            } else if (status == BookingStatus.REJECTED) {
+                rejected = Math.max(0, rejected + delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подписки владельцев на изменения бронирований их вещей. Как событие уходит клиенту,
+ * решает {@link BookingEventSink} подписчика. События попадают в ограниченный буфер подписчика и отправляются пулом потоков,
+ * поэтому медленный клиент не задерживает сервис бронирований. Переполнение буфера
+ * закрывает подписку: клиент переподключается и перечитывает список бронирований.
+ */
+@Component
+@Slf4j
+public class OwnerBookingStream {
+    private final ConcurrentMap<Long, Set<Subscriber>> owners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final int bufferSize;
+
+    public OwnerBookingStream(@Value("${shareit.booking-stream.buffer:64}") int bufferSize,
+                              @Value("${shareit.booking-stream.heartbeat:PT15S}") Duration heartbeat,
+                              @Value("${shareit.booking-stream.threads:2}") int threads) {
+        this.bufferSize = bufferSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public BookingSubscription subscribe(Long ownerId, BookingEventSink sink) {
+        Subscriber subscriber = new Subscriber(ownerId, sink, bufferSize);
+        owners.computeIfAbsent(ownerId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        log.info("Владелец с ID={} подписался на изменения бронирований", ownerId);
+        return () -> unsubscribe(subscriber);
+    }
+
+    /**
+     * Событие доставляется после фиксации транзакции, в которой оно возникло
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        Set<Subscriber> subscribers = owners.get(event.getOwnerId());
+        if (subscribers == null) {
+            return;
+        }
+        BookingEventDto dto = new BookingEventDto(event.getBookingId(), event.getItemId(),
+                event.getStatus().name());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.events.offer(dto)) {
+                executor.execute(subscriber::drain);
+            } else {
+                log.info("Буфер подписчика владельца с ID={} переполнен, подписка закрыта", event.getOwnerId());
+                unsubscribe(subscriber);
+                subscriber.sink.complete();
+            }
+        }
+    }
+
+    int subscriberCount(Long ownerId) {
+        Set<Subscriber> subscribers = owners.get(ownerId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        owners.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.sink.complete()));
+        owners.clear();
+    }
+
+    private void heartbeat() {
+        owners.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            subscriber.heartbeatDue = true;
+            executor.execute(subscriber::drain);
+        }));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        owners.computeIfPresent(subscriber.ownerId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long ownerId;
+        private final BookingEventSink sink;
+        private final BlockingQueue<BookingEventDto> events;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        Subscriber(Long ownerId, BookingEventSink sink, int bufferSize) {
+            this.ownerId = ownerId;
+            this.sink = sink;
+            this.events = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Отправляет накопленные события; одновременно отправкой занят не больше чем один поток
+         */
+        void drain() {
+            while (draining.compareAndSet(false, true)) {
+                try {
+                    BookingEventDto event;
+                    while ((event = events.poll()) != null) {
+                        sink.send(event);
+                    }
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        sink.heartbeat();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Подписчик владельца с ID={} отключился", ownerId);
+                    unsubscribe(this);
+                    sink.completeWithError(e);
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+                if (events.isEmpty() && !heartbeatDue) {
+                    return;
+                }
+            }
+        }
+    }
+}
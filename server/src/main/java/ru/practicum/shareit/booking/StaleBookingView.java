@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ожидающее бронирование, начало которого уже прошло.
+ */
+public interface StaleBookingView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    LocalDateTime getStart();
+}
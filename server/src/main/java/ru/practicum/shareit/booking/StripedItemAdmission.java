@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Очередь по вещи внутри одного узла: вещь попадает в одну из stripes блокировок по своему ID.
+ * Блокировка держится до фиксации транзакции, поэтому следующий запрос уже видит сохранённое бронирование.
+ */
+@Component
+@ConditionalOnProperty(name = ItemAdmission.MODE_PROPERTY, havingValue = "striped", matchIfMissing = true)
+public class StripedItemAdmission implements ItemAdmission {
+    private final ReentrantLock[] locks;
+    private final TransactionTemplate transactionTemplate;
+
+    public StripedItemAdmission(TransactionTemplate transactionTemplate,
+                                @Value("${shareit.booking-admission.stripes:256}") int stripes) {
+        this.transactionTemplate = transactionTemplate;
+        this.locks = new ReentrantLock[Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public <T> T admit(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T admitAll(Collection<Long> itemIds, Supplier<T> action) {
+        int[] stripes = itemIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return transactionTemplate.execute(status -> action.get());
+        } finally {
+            while (locked > 0) {
+                locks[stripes[--locked]].unlock();
+            }
+        }
+    }
+
+    int stripe(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (locks.length - 1);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Вещь в ответе на бронирование: только то, что нужно клиенту.
+ */
+@Data
+@AllArgsConstructor
+public class BookingItemDto {
+    private Long id;
+    private String name;
+}
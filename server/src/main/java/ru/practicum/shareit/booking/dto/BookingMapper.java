@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
 
 public class BookingMapper {
     public static BookingOutcomeDto toBookingDto(Booking booking) {
@@ -8,9 +10,17 @@ public class BookingMapper {
                 booking.getId(),
                 booking.getStart(),
                 booking.getEnd(),
-                booking.getItem(),
-                booking.getBooker(),
+                toBookingItemDto(booking.getItem()),
+                toBookerDto(booking.getBooker()),
                 booking.getBookingStatus().name()
         );
     }
+
+    public static BookingItemDto toBookingItemDto(Item item) {
+        return new BookingItemDto(item.getId(), item.getName());
+    }
+
+    public static BookerDto toBookerDto(User booker) {
+        return new BookerDto(booker.getId());
+    }
 }
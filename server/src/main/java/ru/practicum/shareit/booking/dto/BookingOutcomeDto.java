@@ -2,8 +2,7 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.booking.BookingStatus;
 
 import java.time.LocalDateTime;
 
@@ -13,7 +12,15 @@ public class BookingOutcomeDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private BookingItemDto item;
+    private BookerDto booker;
     private String status;
+
+    /**
+     * Конструктор для проекции в запросах: вещь и автор бронирования не загружаются целиком
+     */
+    public BookingOutcomeDto(Long id, LocalDateTime start, LocalDateTime end,
+                             Long itemId, String itemName, Long bookerId, BookingStatus status) {
+        this(id, start, end, new BookingItemDto(itemId, itemName), new BookerDto(bookerId), status.name());
+    }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+/**
+ * Повторяющееся бронирование: первое бронирование повторяется с шагом interval дней или недель,
+ * count раз или до момента until включительно.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSeriesDto {
+    @NotNull
+    private Long itemId;
+    @FutureOrPresent
+    @NotNull
+    private LocalDateTime start;
+    @Future
+    @NotNull
+    private LocalDateTime end;
+    @NotNull
+    private SeriesFrequency frequency;
+    @Positive
+    private Integer interval;
+    @Positive
+    private Integer count;
+    private LocalDateTime until;
+}
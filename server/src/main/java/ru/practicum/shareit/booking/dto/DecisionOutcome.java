@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+public enum DecisionOutcome {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    NOT_OWNER,
+    NOT_WAITING,
+    EXPIRED
+}
@@ -3,9 +3,7 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
-import ru.practicum.shareit.booking.dto.SearchStatus;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Comment;
@@ -50,10 +48,9 @@ public class CommentServiceImpl implements CommentService {
         if (item == null) {
             throw new DataNotFoundException("Вещь с таким id не найдена");
         }
-        Booking booking = bookingService.getBookingsByUser(userId, SearchStatus.PAST, 0, 0)
-                .stream()
-                .filter(b -> b.getItem().getId() == itemId)
-                .findAny().orElseThrow(() -> new ValidationException("Бронь не найдена"));
+        if (!bookingService.hasFinishedBooking(userId, itemId)) {
+            throw new ValidationException("Бронь не найдена");
+        }
         User user1 = UserMapper.toUser(user);
         return repository.save(new Comment(
                 null, text, item, user1, LocalDateTime.now()
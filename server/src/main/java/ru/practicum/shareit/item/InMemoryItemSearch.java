@@ -0,0 +1,165 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.Status;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Поиск по индексу триграмм в памяти узла. Индекс строится из базы при первом поиске,
+ * дальше сервис вещей сообщает о каждом изменении; изменения применяются после фиксации
+ * транзакции. В индексе только доступные вещи.
+ */
+@Component
+@ConditionalOnProperty(name = ItemSearch.MODE_PROPERTY, havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryItemSearch implements ItemSearch {
+    private static final int FREE_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final ItemTrigramIndex index = new ItemTrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    @Override
+    public List<Long> search(String text, int page, int size) {
+        if (!loaded) {
+            load();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(text, (long) page * size, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> searchFree(String text, LocalDateTime start, LocalDateTime end, int page, int size) {
+        return findFree(text, start, end, (long) page * size, size);
+    }
+
+    @Override
+    public int count(String text, int limit) {
+        if (!loaded) {
+            load();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(text, 0, limit).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countFree(String text, LocalDateTime start, LocalDateTime end, int limit) {
+        return findFree(text, start, end, 0, limit).size();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = item.getAvailable() == Status.AVAILABLE;
+        afterCommit(() -> {
+            if (available) {
+                index.put(id, name, description);
+            } else {
+                index.remove(id);
+            }
+        });
+    }
+
+    @Override
+    public void onItemDeleted(Long itemId) {
+        afterCommit(() -> index.remove(itemId));
+    }
+
+    /**
+     * Совпадения обходятся порциями по FREE_CHUNK ID, занятые вещи порции отсекаются одним запросом
+     * к bookings по idx_bookings_item_period, пока не наберётся limit свободных после первых skip
+     */
+    private List<Long> findFree(String text, LocalDateTime start, LocalDateTime end, long skip, int limit) {
+        if (!loaded) {
+            load();
+        }
+        List<Long> result = new ArrayList<>(limit);
+        long afterId = Long.MIN_VALUE;
+        while (result.size() < limit) {
+            List<Long> chunk;
+            lock.readLock().lock();
+            try {
+                chunk = index.searchAfter(text, afterId, FREE_CHUNK);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Set<Long> busy = new HashSet<>(bookingRepository.findBusyItemIds(chunk, start, end));
+            for (Long id : chunk) {
+                if (busy.contains(id)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else if (result.size() < limit) {
+                    result.add(id);
+                }
+            }
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * До загрузки индекса изменения не нужны: загрузка прочитает их из базы
+     */
+    private void afterCommit(Runnable change) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    change.run();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            jdbcTemplate.query("select id, name, description from items where is_available = ?",
+                    rs -> {
+                        index.put(rs.getLong(1), rs.getString(2), rs.getString(3));
+                    },
+                    Status.AVAILABLE.name());
+            loaded = true;
+            log.info("Индекс поиска вещей загружен, доступных вещей: {}", index.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
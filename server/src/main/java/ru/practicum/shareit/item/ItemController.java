@@ -2,14 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
-import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,13 +31,17 @@ public class ItemController {
                                         @RequestParam(name = "from", defaultValue = "0") int from,
                                         @RequestParam(name = "size", defaultValue = "10") int size) {
         log.info("Получен запрос - показать список вещей пользователя '{}'", userId);
-        return itemService.getItemsToPage(userId, from / size, size).stream().map(
+        List<ItemOutcomeDto> items = itemService.getItemsToPage(userId, from / size, size);
+        List<Long> itemIds = items.stream().map(ItemOutcomeDto::getId).collect(Collectors.toList());
+        Map<Long, BookingDto> lastBookings = bookingService.getLastBookings(itemIds);
+        Map<Long, BookingDto> nextBookings = bookingService.getNextBookings(itemIds);
+        return items.stream().map(
                         item -> {
-                            List<Booking> bookingList = bookingService.getBookingsForUser(item.getId());
                             List<Comment> commentList = commentService.getComments(item.getId());
                             List<CommentDto> commentDtos = commentList.stream().map(CommentMapper::toCommentDto)
                                     .collect(Collectors.toList());
-                            return ItemMapper.toItemInfoDto(item, bookingList, commentDtos);
+                            return ItemMapper.toItemInfoDto(item, lastBookings.get(item.getId()),
+                                    nextBookings.get(item.getId()), commentDtos);
                         })
                 .collect(Collectors.toList());
     }
@@ -74,8 +83,8 @@ public class ItemController {
                 .collect(Collectors.toList());
         ;
         if (itemService.userIsOwnerOfItem(userId, itemId)) {
-            List<Booking> bookings = bookingService.getBookingsForUser(item.getId());
-            return ItemMapper.toItemInfoDto(item, bookings, commentsDto);
+            return ItemMapper.toItemInfoDto(item, bookingService.getLastBooking(item.getId()),
+                    bookingService.getNextBooking(item.getId()), commentsDto);
         } else {
             return ItemMapper.toItemDtoWithComments(item, commentsDto);
         }
@@ -92,11 +101,55 @@ public class ItemController {
     public List<ItemOutcomeDto> searchItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                            @RequestParam String text,
                                            @RequestParam(name = "from", defaultValue = "0") int from,
-                                           @RequestParam(name = "size", defaultValue = "10") int size) {
+                                           @RequestParam(name = "size", defaultValue = "10") int size,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime freeFrom,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime freeTo) {
         log.info("Получен запрос на поиск итема по содержанию текста '{}' у пользователя '{}'", text, userId);
-        return itemService.getItemsByDescription(text, from / size, size).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        if (freeFrom != null || freeTo != null) {
+            if (freeFrom == null || freeTo == null) {
+                throw new ValidationException("Для поиска свободных вещей нужны freeFrom и freeTo.");
+            }
+            return itemService.getFreeItemsByDescription(text, freeFrom, freeTo, from / size, size);
+        }
+        return itemService.getItemsByDescription(text, from / size, size);
+    }
+
+    @GetMapping("/search/page")
+    public ItemSearchPageDto searchItemPage(@RequestHeader("X-Sharer-User-Id") long userId,
+                                            @RequestParam String text,
+                                            @RequestParam(name = "from", defaultValue = "0") int from,
+                                            @RequestParam(name = "size", defaultValue = "10") int size,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime freeFrom,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime freeTo) {
+        log.info("Получен запрос на страницу поиска итема по тексту '{}' с числом совпадений у пользователя '{}'",
+                text, userId);
+        if ((freeFrom == null) != (freeTo == null)) {
+            throw new ValidationException("Для поиска свободных вещей нужны freeFrom и freeTo.");
+        }
+        return itemService.getItemsPageByDescription(text, freeFrom, freeTo, from / size, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggestItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestParam String prefix,
+                                                @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        log.info("Получен запрос на подсказку названий итемов по префиксу '{}' у пользователя '{}'", prefix, userId);
+        return itemService.suggestItems(prefix, limit);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public AvailabilityDto getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @PathVariable Long itemId,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                           LocalDateTime from,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                           LocalDateTime to) {
+        log.info("Получен запрос от пользователя '{}' - занятость итема '{}' с {} по {}", userId, itemId, from, to);
+        return bookingService.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,307 @@
+package ru.practicum.shareit.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Префиксное дерево слов названий вещей. Каждый узел хранит до topSize ID самых бронируемых
+ * вещей своего поддерева (по числу бронирований, затем по ID), поэтому подсказка по префиксу -
+ * это спуск на длину префикса. Вещи, в названии которых слово заканчивается в узле, хранятся
+ * списком ID, по нему и по спискам потомков верхушка пересчитывается, когда вещь из неё уходит.
+ * Большинство узлов - промежуточные буквы с одним потомком, поэтому потомки лежат в отсортированных
+ * массивах, а список ID создаётся только у узлов, где заканчивается слово. Если верхушку узла
+ * отсекает дополнительное условие, подходящие вещи ищутся обходом всего поддерева. Не потокобезопасно.
+ */
+final class ItemPrefixTrie {
+    private static final long[] EMPTY = new long[0];
+
+    private final int topSize;
+    private final Node root = new Node();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<Long, Integer> bookings = new HashMap<>();
+
+    ItemPrefixTrie(int topSize) {
+        this.topSize = topSize;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    String name(long id) {
+        return names.get(id);
+    }
+
+    void put(long id, String name) {
+        remove(id);
+        names.put(id, name);
+        for (String word : words(name)) {
+            List<Node> path = path(word, true);
+            path.get(path.size() - 1).addItem(id);
+            for (Node node : path) {
+                node.top = offer(node.top, id);
+            }
+        }
+    }
+
+    void remove(long id) {
+        String name = names.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String word : words(name)) {
+            List<Node> path = path(word, false);
+            path.get(path.size() - 1).removeItem(id);
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                if (contains(node.top, id)) {
+                    recompute(node);
+                }
+                if (node.isEmpty()) {
+                    path.get(i - 1).removeChild(word.charAt(i - 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Число бронирований вещи; задаётся и для вещей вне дерева, чтобы они заняли своё место при добавлении
+     */
+    void setBookings(long id, int count) {
+        bookings.put(id, count);
+    }
+
+    void addBooking(long id) {
+        addBookings(id, 1);
+    }
+
+    void addBookings(long id, int count) {
+        bookings.merge(id, count, Integer::sum);
+        String name = names.get(id);
+        if (name == null) {
+            return;
+        }
+        for (String word : words(name)) {
+            for (Node node : path(word, false)) {
+                node.top = offer(node.top, id);
+            }
+        }
+    }
+
+    /**
+     * ID самых бронируемых вещей, в названии которых есть слово с префиксом, не больше limit и topSize
+     */
+    List<Long> top(String prefix, int limit) {
+        Node node = find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, node.top.length); i++) {
+            ids.add(node.top[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * То же, но только вещи, прошедшие фильтр. Если из полной верхушки фильтр пропустил меньше limit,
+     * остальные ищутся в поддереве префикса, поэтому limit здесь может быть больше topSize.
+     */
+    List<Long> top(String prefix, int limit, LongPredicate filter) {
+        Node node = find(prefix);
+        if (node == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < node.top.length && ids.size() < limit; i++) {
+            if (filter.test(node.top[i])) {
+                ids.add(node.top[i]);
+            }
+        }
+        if (ids.size() == limit || node.top.length < topSize) {
+            return ids;
+        }
+        Set<Long> matching = new HashSet<>();
+        collect(node, filter, matching);
+        return matching.stream()
+                .sorted((id, other) -> id.equals(other) ? 0 : ranksBefore(id, other) ? -1 : 1)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    static Set<String> words(String name) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : ItemTrigramIndex.normalize(name).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Узел префикса; null, если префикс пуст или такого слова нет
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node == root ? null : node;
+    }
+
+    /**
+     * Узлы от корня до конца слова; без create слово должно быть в дереве
+     */
+    private List<Node> path(String word, boolean create) {
+        List<Node> path = new ArrayList<>(word.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < word.length(); i++) {
+            node = create ? node.addChild(word.charAt(i)) : node.child(word.charAt(i));
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static void collect(Node node, LongPredicate filter, Set<Long> matching) {
+        for (int i = 0; node.items != null && i < node.items.size(); i++) {
+            long id = node.items.get(i);
+            if (filter.test(id)) {
+                matching.add(id);
+            }
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            collect(node.children[i], filter, matching);
+        }
+    }
+
+    private void recompute(Node node) {
+        long[] top = EMPTY;
+        for (int i = 0; node.items != null && i < node.items.size(); i++) {
+            top = offer(top, node.items.get(i));
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            for (long id : node.children[i].top) {
+                top = offer(top, id);
+            }
+        }
+        node.top = top;
+    }
+
+    /**
+     * Ставит вещь на её место в верхушке или вытесняет последнюю, если бронируется чаще
+     */
+    private long[] offer(long[] top, long id) {
+        int position = indexOf(top, id);
+        if (position < 0) {
+            if (top.length < topSize) {
+                top = Arrays.copyOf(top, top.length + 1);
+            } else if (!ranksBefore(id, top[top.length - 1])) {
+                return top;
+            }
+            position = top.length - 1;
+            top[position] = id;
+        }
+        while (position > 0 && ranksBefore(top[position], top[position - 1])) {
+            long previous = top[position - 1];
+            top[position - 1] = top[position];
+            top[position] = previous;
+            position--;
+        }
+        return top;
+    }
+
+    private boolean ranksBefore(long id, long other) {
+        int count = bookings.getOrDefault(id, 0);
+        int otherCount = bookings.getOrDefault(other, 0);
+        return count != otherCount ? count > otherCount : id < other;
+    }
+
+    private static boolean contains(long[] top, long id) {
+        return indexOf(top, id) >= 0;
+    }
+
+    private static int indexOf(long[] top, long id) {
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+        private LongPostings items;
+        private long[] top = EMPTY;
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(keys, 0, childCount, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node addChild(char key) {
+            int position = Arrays.binarySearch(keys, 0, childCount, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, childCount + 1);
+                children = Arrays.copyOf(children, childCount + 1);
+            }
+            System.arraycopy(keys, position, keys, position + 1, childCount - position);
+            System.arraycopy(children, position, children, position + 1, childCount - position);
+            Node child = new Node();
+            keys[position] = key;
+            children[position] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, 0, childCount, key);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(keys, position + 1, keys, position, childCount - position - 1);
+            System.arraycopy(children, position + 1, children, position, childCount - position - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+
+        void addItem(long id) {
+            if (items == null) {
+                items = new LongPostings(1);
+            }
+            items.add(id);
+        }
+
+        void removeItem(long id) {
+            if (items != null) {
+                items.remove(id);
+                if (items.size() == 0) {
+                    items = null;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return items == null && childCount == 0;
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query("select i from Item as i " +
+    /**
+     * ID доступных вещей, в названии или описании которых встречается текст, без подсчёта общего числа
+     */
+    @Query("select i.id from Item as i " +
             "where (upper(i.name) like upper(concat('%', :text, '%')) " +
             " or upper(i.description) like upper(concat('%', :text, '%'))) " +
             "and i.available = ru.practicum.shareit.item.model.Status.AVAILABLE ")
-    Page<Item> getItemsByDescription(String text, Pageable pageable);
+    List<Long> findAvailableIdsByText(String text, Pageable pageable);
+
+    /**
+     * То же, но только вещи без ожидающих и подтверждённых бронирований, пересекающих период
+     */
+    @Query("select i.id from Item as i " +
+            "where (upper(i.name) like upper(concat('%', :text, '%')) " +
+            " or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "and i.available = ru.practicum.shareit.item.model.Status.AVAILABLE " +
+            "and not exists (select b.id from Booking as b where b.item = i " +
+            " and b.bookingStatus in (ru.practicum.shareit.booking.BookingStatus.WAITING, " +
+            " ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            " and b.start < :end and b.end > :start) ")
+    List<Long> findAvailableFreeIdsByText(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    /**
+     * Доступные вещи из списка ID, порядок не определён
+     */
+    @Query("select new ru.practicum.shareit.item.dto.ItemOutcomeDto(i.id, i.name, i.description, i.available, " +
+            "o.id, o.email, o.name, r.id) " +
+            "from Item as i join i.owner as o left join i.request as r " +
+            "where i.id in :ids and i.available = ru.practicum.shareit.item.model.Status.AVAILABLE ")
+    List<ItemOutcomeDto> findAvailableOutcomesByIds(Collection<Long> ids);
 
     @Modifying
     @Query("delete from Item as i " +
             "where i.id = :itemId and i.owner.id = :userId")
-    void deleteByUserIdAndItemId(long itemId, long userId);
+    int deleteByUserIdAndItemId(long itemId, long userId);
 
     @Query("select i from Item as i " +
             "where i.owner.id = :userId order by i.id")
@@ -29,9 +56,14 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "where i.owner.id = :userId order by i.id")
     List<Item> getByOwnerId(Long userId);
 
-    @Query("select i from Item as i " +
-            "where i.owner.id = :userId order by i.id")
-    Page<Item> findAllByUserIdPage(Long userId, Pageable pageable);
+    /**
+     * Страница вещей владельца без подсчёта общего числа
+     */
+    @Query("select new ru.practicum.shareit.item.dto.ItemOutcomeDto(i.id, i.name, i.description, i.available, " +
+            "o.id, o.email, o.name, r.id) " +
+            "from Item as i join i.owner as o left join i.request as r " +
+            "where o.id = :userId")
+    List<ItemOutcomeDto> findAllByUserIdPage(Long userId, Pageable pageable);
 
     @Query("select i from Item as i " +
             "where i.request != null and i.request.id = :requestId")
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по тексту в названии или описании. Возвращает только ID страницы
+ * совпадений, сами вещи загружает сервис. Реализация выбирается свойством {@link #MODE_PROPERTY}:
+ * memory (по умолчанию), trigram или like.
+ */
+public interface ItemSearch {
+    String MODE_PROPERTY = "shareit.item-search.mode";
+
+    /**
+     * ID доступных вещей, в названии или описании которых встречается текст без учёта регистра,
+     * страница page размера size
+     */
+    List<Long> search(String text, int page, int size);
+
+    /**
+     * То же, но только вещи, свободные в период [start, end): без ожидающих и подтверждённых
+     * бронирований, пересекающих его. Страница отсчитывается по свободным вещам
+     */
+    List<Long> searchFree(String text, LocalDateTime start, LocalDateTime end, int page, int size);
+
+    /**
+     * Число вещей, которые находит search, но не больше limit: подсчёт останавливается на limit совпадениях
+     */
+    int count(String text, int limit);
+
+    /**
+     * Число вещей, которые находит searchFree, но не больше limit
+     */
+    int countFree(String text, LocalDateTime start, LocalDateTime end, int limit);
+
+    /**
+     * Вещь создана или изменена
+     */
+    void onItemSaved(Item item);
+
+    void onItemDeleted(Long itemId);
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Страницы ID результатов поиска вещей и, отдельным кэшем, число совпадений. Ключ страницы - текст запроса
+ * без учёта регистра и страница, ключ числа - текст и предел подсчёта. Одинаковые промахи, пришедшие
+ * одновременно, ждут один поиск. Изменение вещи сбрасывает страницы и числа запросов, текст которых
+ * встречается в её прежних или новых названии и описании. Поиск, начатый до сброса, мог прочитать вещи
+ * до изменения: его результат отдаётся, но не остаётся в кэше. Попадания и промахи - метрики
+ * cache.gets{cache=item-search} и cache.gets{cache=item-search-count}.
+ */
+@Component
+public class ItemSearchCache {
+    static final String NAME = "item-search";
+    static final String COUNT_NAME = "item-search-count";
+    private static final long NOT_LOADED = -1;
+
+    private final Cache<Key, List<Long>> cache;
+    private final Cache<CountKey, Integer> counts;
+    /**
+     * Число сбросов: поиск, во время которого оно изменилось, мог не попасть под сброс
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item-search.cache.max-size:10000}") long maxSize,
+                           @Value("${shareit.item-search.cache.ttl:PT1M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, COUNT_NAME);
+    }
+
+    public List<Long> get(String text, int page, int size, Supplier<List<Long>> search) {
+        return load(cache, new Key(ItemTrigramIndex.normalize(text), page, size), () -> List.copyOf(search.get()));
+    }
+
+    public int count(String text, int limit, IntSupplier count) {
+        return load(counts, new CountKey(ItemTrigramIndex.normalize(text), limit), count::getAsInt);
+    }
+
+    private <K, V> V load(Cache<K, V> target, K key, Supplier<V> search) {
+        long[] startedAt = {NOT_LOADED};
+        V value = target.get(key, k -> {
+            startedAt[0] = evictions.get();
+            return search.get();
+        });
+        if (startedAt[0] != NOT_LOADED && evictions.get() != startedAt[0]) {
+            target.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Сбрасывает после фиксации транзакции страницы и числа запросов, которые находят любой из текстов
+     */
+    public void evictMatching(String... texts) {
+        Set<String> normalized = Stream.of(texts)
+                .map(ItemTrigramIndex::normalize)
+                .collect(Collectors.toSet());
+        AfterCommit.run(() -> {
+            evictions.incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> normalized.stream().anyMatch(text -> text.contains(key.text)));
+            counts.asMap().keySet().removeIf(key -> normalized.stream().anyMatch(text -> text.contains(key.text)));
+        });
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final String text;
+        private final int page;
+        private final int size;
+
+        private Key(String text, int page, int size) {
+            this.text = text;
+            this.page = page;
+            this.size = size;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class CountKey {
+        private final String text;
+        private final int limit;
+
+        private CountKey(String text, int limit) {
+            this.text = text;
+            this.limit = limit;
+        }
+    }
+}
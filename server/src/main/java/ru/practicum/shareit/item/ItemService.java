@@ -1,13 +1,17 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     List<Item> getItems(Long userId);
 
-    List<Item> getItemsToPage(Long userId, int from, int size);
+    List<ItemOutcomeDto> getItemsToPage(Long userId, int from, int size);
 
     Item addNewItem(Long userId, String name, String description, Boolean available, Long requestId);
 
@@ -17,7 +21,15 @@ public interface ItemService {
 
     Item getItemById(Long userId, Long itemId);
 
-    List<Item> getItemsByDescription(String text, int from, int size);
+    List<ItemOutcomeDto> getItemsByDescription(String text, int from, int size);
+
+    List<ItemOutcomeDto> getFreeItemsByDescription(String text, LocalDateTime freeFrom, LocalDateTime freeTo,
+                                                   int from, int size);
+
+    ItemSearchPageDto getItemsPageByDescription(String text, LocalDateTime freeFrom, LocalDateTime freeTo,
+                                                int from, int size);
+
+    List<ItemSuggestionDto> suggestItems(String prefix, int limit);
 
     boolean userIsOwnerOfItem(long userId, Long itemId);
 
@@ -1,12 +1,16 @@
 package ru.practicum.shareit.item;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.DataNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequestService;
@@ -14,17 +18,43 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserMapper;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository repository;
     private final UserService userService;
     private final ItemRequestService requestService;
+    private final ItemSearch itemSearch;
+    private final ItemSearchCache searchCache;
+    private final ItemSuggestIndex suggestIndex;
+    private final int countLimit;
+    private final int countPagesAhead;
+
+    public ItemServiceImpl(ItemRepository repository,
+                           UserService userService,
+                           ItemRequestService requestService,
+                           ItemSearch itemSearch,
+                           ItemSearchCache searchCache,
+                           ItemSuggestIndex suggestIndex,
+                           @Value("${shareit.item-search.count-limit:1000}") int countLimit,
+                           @Value("${shareit.item-search.count-pages-ahead:1}") int countPagesAhead) {
+        this.repository = repository;
+        this.userService = userService;
+        this.requestService = requestService;
+        this.itemSearch = itemSearch;
+        this.searchCache = searchCache;
+        this.suggestIndex = suggestIndex;
+        this.countLimit = countLimit;
+        this.countPagesAhead = countPagesAhead;
+    }
 
     @Override
     public List<Item> getItems(Long userId) {
@@ -32,9 +62,9 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<Item> getItemsToPage(Long userId, int from, int size) {
+    public List<ItemOutcomeDto> getItemsToPage(Long userId, int from, int size) {
         Sort sortById = Sort.by(Sort.Direction.ASC, "id");
-        return repository.findAllByUserIdPage(userId, PageRequest.of(from, size, sortById)).getContent();
+        return repository.findAllByUserIdPage(userId, PageRequest.of(from, size, sortById));
     }
 
     @Override
@@ -46,7 +76,7 @@ public class ItemServiceImpl implements ItemService {
         } else {
             status = Status.UNAVAILABLE;
         }
-        return repository.save(new Item(
+        Item item = repository.save(new Item(
                 null,
                 name,
                 description,
@@ -54,6 +84,10 @@ public class ItemServiceImpl implements ItemService {
                 user,
                 requestId != null ? requestService.getRequestById(userId, requestId) : null
         ));
+        itemSearch.onItemSaved(item);
+        suggestIndex.onItemSaved(item);
+        searchCache.evictMatching(name, description);
+        return item;
     }
 
     @Override
@@ -66,6 +100,8 @@ public class ItemServiceImpl implements ItemService {
         if (!Objects.equals(updateItem.getOwner().getId(), userId)) {
             throw new DataNotFoundException("Пользователь с заданным Id не является владельцем");
         }
+        String previousName = updateItem.getName();
+        String previousDescription = updateItem.getDescription();
         if (itemName != null) {
             updateItem.setName(itemName);
         }
@@ -81,12 +117,22 @@ public class ItemServiceImpl implements ItemService {
             }
             updateItem.setAvailable(status);
         }
-        return repository.save(updateItem);
+        Item item = repository.save(updateItem);
+        itemSearch.onItemSaved(item);
+        suggestIndex.onItemSaved(item);
+        searchCache.evictMatching(previousName, previousDescription, item.getName(), item.getDescription());
+        return item;
     }
 
     @Override
+    @Transactional
     public void deleteItem(Long userId, Long itemId) {
-        repository.deleteByUserIdAndItemId(userId, itemId);
+        Item item = repository.findById(itemId).orElse(null);
+        if (item != null && repository.deleteByUserIdAndItemId(itemId, userId) > 0) {
+            itemSearch.onItemDeleted(itemId);
+            suggestIndex.onItemDeleted(itemId);
+            searchCache.evictMatching(item.getName(), item.getDescription());
+        }
     }
 
     @Override
@@ -102,12 +148,80 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<Item> getItemsByDescription(String text, int from, int size) {
+    public List<ItemOutcomeDto> getItemsByDescription(String text, int from, int size) {
         if (text.isEmpty()) {
             return Collections.emptyList();
         }
-        Sort sort = Sort.by(Sort.Direction.ASC, "id");
-        return repository.getItemsByDescription(text, PageRequest.of(from, size, sort)).getContent();
+        List<Long> ids = searchCache.get(text, from, size, () -> itemSearch.search(text, from, size));
+        return toOutcomes(ids);
+    }
+
+    /**
+     * Занятость меняется с каждым бронированием, поэтому результаты с периодом не кэшируются
+     */
+    @Override
+    public List<ItemOutcomeDto> getFreeItemsByDescription(String text, LocalDateTime freeFrom, LocalDateTime freeTo,
+                                                          int from, int size) {
+        if (!freeFrom.isBefore(freeTo)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания.");
+        }
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return toOutcomes(itemSearch.searchFree(text, freeFrom, freeTo, from, size));
+    }
+
+    /**
+     * Неполная непустая страница - последняя, и общее число известно без подсчёта. Иначе совпадения
+     * считаются не дальше count-pages-ahead страниц за текущей и не больше count-limit: страница уже
+     * прочитала from * size + size совпадений, поэтому подсчёт обходит не больше чем на несколько страниц
+     * дальше неё. При большем числе возвращается нижняя оценка
+     */
+    @Override
+    public ItemSearchPageDto getItemsPageByDescription(String text, LocalDateTime freeFrom, LocalDateTime freeTo,
+                                                       int from, int size) {
+        boolean free = freeFrom != null;
+        if (free && !freeFrom.isBefore(freeTo)) {
+            throw new ValidationException("Начало периода должно быть раньше окончания.");
+        }
+        if (text.isEmpty()) {
+            return new ItemSearchPageDto(Collections.emptyList(), 0, true);
+        }
+        List<Long> ids = free
+                ? itemSearch.searchFree(text, freeFrom, freeTo, from, size)
+                : searchCache.get(text, from, size, () -> itemSearch.search(text, from, size));
+        long seen = (long) from * size + ids.size();
+        if ((!ids.isEmpty() || from == 0) && ids.size() < size) {
+            return new ItemSearchPageDto(toOutcomes(ids), seen, true);
+        }
+        int window = (int) Math.min(countLimit, seen + (long) countPagesAhead * size);
+        int count = free
+                ? itemSearch.countFree(text, freeFrom, freeTo, window + 1)
+                : searchCache.count(text, window + 1, () -> itemSearch.count(text, window + 1));
+        if (count <= window) {
+            return new ItemSearchPageDto(toOutcomes(ids), count, true);
+        }
+        return new ItemSearchPageDto(toOutcomes(ids), Math.max(window, seen), false);
+    }
+
+    /**
+     * Вещи страницы в порядке ID поиска
+     */
+    private List<ItemOutcomeDto> toOutcomes(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemOutcomeDto> items = repository.findAvailableOutcomesByIds(ids).stream()
+                .collect(Collectors.toMap(ItemOutcomeDto::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggestItems(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
     }
 
     @Override
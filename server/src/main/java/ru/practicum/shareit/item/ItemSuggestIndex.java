@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.BookingEvent;
+import ru.practicum.shareit.booking.BookingImportEvent;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.Status;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий доступных вещей по префиксу: самые бронируемые вещи, в названии которых
+ * есть слово с этим префиксом. Дерево строится из базы при первой подсказке, дальше его обновляют
+ * сервис вещей, события о новых бронированиях и о зафиксированных порциях импорта, после фиксации
+ * транзакции. Подсказка в базу не ходит. Подсказок не больше top-size: столько хранит каждый узел дерева.
+ */
+@Component
+@Slf4j
+public class ItemSuggestIndex {
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemPrefixTrie trie;
+    private final int topSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public ItemSuggestIndex(JdbcTemplate jdbcTemplate,
+                            @Value("${shareit.item-suggest.top-size:10}") int topSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.topSize = topSize;
+        this.trie = new ItemPrefixTrie(topSize);
+    }
+
+    /**
+     * Слова префикса, кроме последнего, должны быть началами слов названия; по последнему ищется в дереве
+     */
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > topSize) {
+            throw new ValidationException("Подсказок должно быть от 1 до " + topSize);
+        }
+        List<String> words = new ArrayList<>(ItemPrefixTrie.words(prefix));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (!loaded) {
+            load();
+        }
+        String last = words.remove(words.size() - 1);
+        List<ItemSuggestionDto> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Long> ids = words.isEmpty() ? trie.top(last, limit)
+                    : trie.top(last, limit, id -> startsAllWords(ItemPrefixTrie.words(trie.name(id)), words));
+            for (Long id : ids) {
+                suggestions.add(new ItemSuggestionDto(id, trie.name(id)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    public void onItemSaved(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        boolean available = item.getAvailable() == Status.AVAILABLE;
+        afterCommit(() -> {
+            if (available) {
+                trie.put(id, name);
+            } else {
+                trie.remove(id);
+            }
+        });
+    }
+
+    public void onItemDeleted(Long itemId) {
+        afterCommit(() -> trie.remove(itemId));
+    }
+
+    /**
+     * Событие со статусом WAITING публикуется только при создании бронирования
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getStatus() != BookingStatus.WAITING) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                trie.addBooking(event.getItemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingImport(BookingImportEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                event.getBookingsByItem().forEach(trie::addBookings);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean startsAllWords(Set<String> nameWords, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (nameWords.stream().noneMatch(word -> word.startsWith(prefix))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * До загрузки дерева изменения не нужны: загрузка прочитает их из базы
+     */
+    private void afterCommit(Runnable change) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    change.run();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            jdbcTemplate.query("select item_id, count(*) from bookings group by item_id",
+                    rs -> {
+                        trie.setBookings(rs.getLong(1), rs.getInt(2));
+                    });
+            jdbcTemplate.query("select id, name from items where is_available = ?",
+                    rs -> {
+                        trie.put(rs.getLong(1), rs.getString(2));
+                    },
+                    Status.AVAILABLE.name());
+            loaded = true;
+            log.info("Индекс подсказок названий вещей загружен, доступных вещей: {}", trie.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Инвертированный индекс триграмм названий и описаний вещей. Для каждой триграммы хранится
+ * список ID вещей по возрастанию; кандидаты - пересечение списков триграмм запроса,
+ * затем подстрока проверяется по тексту вещи. Запросы короче триграммы проверяются
+ * по всем вещам индекса. Не потокобезопасен.
+ */
+final class ItemTrigramIndex {
+    private static final int GRAM = 3;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, LongPostings> postings = new HashMap<>();
+    private final LongPostings all = new LongPostings();
+
+    int size() {
+        return documents.size();
+    }
+
+    void put(long id, String name, String description) {
+        remove(id);
+        Document document = new Document(normalize(name), normalize(description));
+        documents.put(id, document);
+        all.add(id);
+        for (Long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new LongPostings()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        all.remove(id);
+        for (Long gram : document.grams()) {
+            LongPostings list = postings.get(gram);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * ID вещей, содержащих текст, по возрастанию: пропускаются первые offset совпадений,
+     * возвращается не больше limit
+     */
+    List<Long> search(String text, long offset, int limit) {
+        return scan(text, Long.MIN_VALUE, offset, limit);
+    }
+
+    /**
+     * Не больше limit ID вещей, содержащих текст, больших afterId, по возрастанию: продолжение
+     * обхода совпадений с места, где закончилась предыдущая порция
+     */
+    List<Long> searchAfter(String text, long afterId, int limit) {
+        return scan(text, afterId, 0, limit);
+    }
+
+    private List<Long> scan(String text, long afterId, long offset, int limit) {
+        String query = normalize(text);
+        List<LongPostings> lists = new ArrayList<>();
+        if (query.length() < GRAM) {
+            lists.add(all);
+        } else {
+            Set<Long> grams = new HashSet<>();
+            addGrams(query, grams);
+            for (Long gram : grams) {
+                LongPostings list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(LongPostings::size));
+        }
+        LongPostings candidates = lists.get(0);
+        List<Long> page = new ArrayList<>(limit);
+        long skipped = 0;
+        for (int i = candidates.indexAfter(afterId); i < candidates.size() && page.size() < limit; i++) {
+            long id = candidates.get(i);
+            if (!containsAll(lists, id) || !documents.get(id).contains(query)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(id);
+            }
+        }
+        return page;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsAll(List<LongPostings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Триграмма упаковывается в long: по 16 бит на символ
+     */
+    private static void addGrams(String text, Set<Long> grams) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static final class Document {
+        private final String name;
+        private final String description;
+
+        private Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        private boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        private Set<Long> grams() {
+            Set<Long> grams = new HashSet<>();
+            addGrams(name, grams);
+            addGrams(description, grams);
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск запросом like по таблице items: каждый запрос читает все вещи, зато не требует памяти
+ * и одинаково работает на любом числе узлов.
+ */
+@Component
+@ConditionalOnProperty(name = ItemSearch.MODE_PROPERTY, havingValue = "like")
+@RequiredArgsConstructor
+public class LikeItemSearch implements ItemSearch {
+    private final ItemRepository repository;
+
+    @Override
+    public List<Long> search(String text, int page, int size) {
+        return repository.findAvailableIdsByText(text, PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Override
+    public List<Long> searchFree(String text, LocalDateTime start, LocalDateTime end, int page, int size) {
+        return repository.findAvailableFreeIdsByText(text, start, end,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Override
+    public int count(String text, int limit) {
+        return repository.findAvailableIdsByText(text, PageRequest.of(0, limit)).size();
+    }
+
+    @Override
+    public int countFree(String text, LocalDateTime start, LocalDateTime end, int limit) {
+        return repository.findAvailableFreeIdsByText(text, start, end, PageRequest.of(0, limit)).size();
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+    }
+
+    @Override
+    public void onItemDeleted(Long itemId) {
+    }
+}
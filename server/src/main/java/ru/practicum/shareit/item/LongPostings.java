@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+
+/**
+ * Список ID по возрастанию в массиве long. ID новых вещей растут, поэтому добавление
+ * обычно дописывает в конец; вставка в середину и удаление сдвигают хвост массива.
+ */
+final class LongPostings {
+    private long[] ids;
+    private int size;
+
+    LongPostings() {
+        this(4);
+    }
+
+    LongPostings(int capacity) {
+        this.ids = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Позиция первого ID больше заданного
+     */
+    int indexAfter(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    void add(long id) {
+        int position = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+}
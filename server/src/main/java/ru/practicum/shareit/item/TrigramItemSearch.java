@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск в PostgreSQL по GIN-индексу триграмм pg_trgm (idx_items_text_trgm). Индекс общий
+ * для всех узлов и поддерживается самой базой. Совпадения упорядочены по близости текста
+ * запроса к словам названия или описания, при равной близости - по ID.
+ */
+@Component
+@ConditionalOnProperty(name = ItemSearch.MODE_PROPERTY, havingValue = "trigram")
+@RequiredArgsConstructor
+public class TrigramItemSearch implements ItemSearch {
+    private static final String MATCH = "is_available = 'AVAILABLE' " +
+            "and (name ilike :pattern or description ilike :pattern) ";
+    private static final String FREE = "not exists (select 1 from bookings b where b.item_id = items.id " +
+            "and b.status in ('WAITING', 'APPROVED') and b.start_date < :end and b.end_date > :start) ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> search(String text, int page, int size) {
+        return jdbcTemplate.queryForList("select id from items where " + MATCH +
+                        "order by greatest(word_similarity(:text, name), word_similarity(:text, description)) desc, id " +
+                        "limit :limit offset :offset",
+                parameters(text).addValue("limit", size).addValue("offset", (long) page * size), Long.class);
+    }
+
+    /**
+     * Занятость проверяется антисоединением с bookings по idx_bookings_item_period
+     */
+    @Override
+    public List<Long> searchFree(String text, LocalDateTime start, LocalDateTime end, int page, int size) {
+        return jdbcTemplate.queryForList("select id from items where " + MATCH + "and " + FREE +
+                        "order by greatest(word_similarity(:text, name), word_similarity(:text, description)) desc, id " +
+                        "limit :limit offset :offset",
+                parameters(text, start, end).addValue("limit", size).addValue("offset", (long) page * size),
+                Long.class);
+    }
+
+    /**
+     * Без сортировки по близости: достаточно limit совпадений из индекса
+     */
+    @Override
+    public int count(String text, int limit) {
+        return jdbcTemplate.queryForObject("select count(*) from (select 1 from items where " + MATCH +
+                "limit :limit) as hits", parameters(text).addValue("limit", limit), Integer.class);
+    }
+
+    @Override
+    public int countFree(String text, LocalDateTime start, LocalDateTime end, int limit) {
+        return jdbcTemplate.queryForObject("select count(*) from (select 1 from items where " + MATCH + "and " +
+                FREE + "limit :limit) as hits", parameters(text, start, end).addValue("limit", limit), Integer.class);
+    }
+
+    @Override
+    public void onItemSaved(Item item) {
+    }
+
+    @Override
+    public void onItemDeleted(Long itemId) {
+    }
+
+    private static MapSqlParameterSource parameters(String text) {
+        return new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("pattern", "%" + escapeLike(text) + "%");
+    }
+
+    private static MapSqlParameterSource parameters(String text, LocalDateTime start, LocalDateTime end) {
+        return parameters(text)
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,15 +1,12 @@
 package ru.practicum.shareit.item.dto;
 
 import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.user.dto.UserMapper;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 public class ItemMapper {
@@ -28,19 +25,26 @@ public class ItemMapper {
                 comments.isEmpty() ? new ArrayList<>() : comments);
     }
 
+    public static ItemOutcomeInfoDto toItemInfoDto(ItemOutcomeDto item,
+                                                   BookingDto bookingLast,
+                                                   BookingDto bookingNext,
+                                                   List<CommentDto> comments) {
+        return new ItemOutcomeInfoDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getOwner(),
+                item.getRequestId(),
+                bookingLast,
+                bookingNext,
+                comments.isEmpty() ? new ArrayList<>() : comments);
+    }
+
     public static ItemOutcomeInfoDto toItemInfoDto(Item item,
-                                                   List<Booking> bookings,
+                                                   Booking bookingLast,
+                                                   Booking bookingNext,
                                                    List<CommentDto> comments) {
-        Booking bookingLast = bookings.stream()
-                .filter(b -> ((b.getStart().isBefore(LocalDateTime.now())) || (b.getEnd().isBefore(LocalDateTime.now()))))
-                .max(Comparator.comparing(Booking::getStart)).orElse(null);
-        Booking bookingNext = bookings.stream()
-                .filter(b -> ((b.getStart().isAfter(LocalDateTime.now()))
-                        &&
-                        (!b.getBookingStatus().equals(BookingStatus.REJECTED))
-                        &&
-                        (!b.getBookingStatus().equals(BookingStatus.CANCELED))))
-                .min(Comparator.comparing(Booking::getStart)).orElse(null);
         return new ItemOutcomeInfoDto(
                 item.getId(),
                 item.getName(),
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница результатов поиска и общее число совпадений. Если совпадений больше предела подсчёта,
+ * total - нижняя оценка, а totalExact = false
+ */
+@Data
+@AllArgsConstructor
+public class ItemSearchPageDto {
+    private List<ItemOutcomeDto> items;
+    private long total;
+    private boolean totalExact;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.lease;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "leases")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+public class Lease {
+    @Id
+    private String name;
+    @Column(name = "owner", nullable = false)
+    private String owner;
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
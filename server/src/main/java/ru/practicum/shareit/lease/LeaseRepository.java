@@ -0,0 +1,30 @@
+package ru.practicum.shareit.lease;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface LeaseRepository extends JpaRepository<Lease, String> {
+    /**
+     * Захват свободной или продление своей аренды
+     */
+    @Modifying
+    @Query("update Lease as l set l.owner = :owner, l.lockedUntil = :until " +
+            "where l.name = :name and (l.lockedUntil < :now or l.owner = :owner) ")
+    int acquire(String name, String owner, LocalDateTime now, LocalDateTime until);
+
+    /**
+     * Создание аренды вставкой: строку, уже вставленную другим узлом, вставка не перезаписывает, а падает
+     * на первичном ключе
+     */
+    @Modifying
+    @Query(value = "insert into leases (name, owner, locked_until) values (:name, :owner, :until)",
+            nativeQuery = true)
+    int create(String name, String owner, LocalDateTime until);
+
+    @Modifying
+    @Query("update Lease as l set l.lockedUntil = :now where l.name = :name and l.owner = :owner ")
+    int release(String name, String owner, LocalDateTime now);
+}
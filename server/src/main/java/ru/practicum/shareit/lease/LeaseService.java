@@ -0,0 +1,53 @@
+package ru.practicum.shareit.lease;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Аренда именованной задачи в базе: пока аренда не истекла, задачу выполняет только её владелец.
+ * Первый узел создаёт строку аренды вставкой, остальные узлы получают на ней нарушение первичного ключа.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaseService {
+    private final LeaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                repository.acquire(name, nodeId, now, now.plus(duration)));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        if (repository.existsById(name)) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.create(name, nodeId, now.plus(duration)));
+            log.info("Создана аренда '{}' для узла {}", name, nodeId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status ->
+                repository.release(name, nodeId, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,32 @@
+-- Исходная схема. Все объекты создаются с if not exists, чтобы базы, созданные
+-- до перехода на миграции, приняли её без пересоздания (baseline-on-migrate).
+create table if not exists users
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name varchar(50) not null,
+    email varchar(25) not null,
+    CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
+    );
+
+create table if not exists requests
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    description varchar(200) not null,
+    requestor_id BIGINT not null,
+    created_time TIMESTAMP WITHOUT TIME ZONE,
+    foreign key (requestor_id) references users (id) on delete cascade
+    );
+
+create table if not exists items
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name varchar(50) not null,
+    description varchar(200) not null,
+    is_available varchar(11) not null,
+    owner_id BIGINT not null,
+    request_id BIGINT,
+    foreign key (owner_id) references users (id) on delete cascade,
+    foreign key (request_id) references requests (id) on delete cascade
+    );
+
+create index if not exists idx_items_owner on items (owner_id);
@@ -0,0 +1,18 @@
+-- Индексы под запросы репозиториев. Запросы по вещи и периоду (item_id, start_date)
+-- обслуживает idx_bookings_item_period из V2, отдельный индекс для них не нужен.
+
+-- Бронирования пользователя: booker_id = ? order by start_date desc
+create index if not exists idx_bookings_booker_start on bookings (booker_id, start_date desc);
+
+-- Вещи владельца: owner_id = ? order by id; заменяет индекс только по owner_id
+drop index if exists idx_items_owner;
+create index if not exists idx_items_owner_id on items (owner_id, id);
+
+-- Вещи, добавленные в ответ на запросы
+create index if not exists idx_items_request on items (request_id);
+
+-- Запросы пользователя: requestor_id = ? order by created_time desc
+create index if not exists idx_requests_requestor_created on requests (requestor_id, created_time desc);
+
+-- Отзывы к вещи: item_id = ? order by created desc
+create index if not exists idx_comments_item_created on comments (item_id, created desc);
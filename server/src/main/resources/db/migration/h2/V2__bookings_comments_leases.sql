@@ -0,0 +1,32 @@
+create table if not exists bookings
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date TIMESTAMP WITHOUT TIME ZONE,
+    item_id BIGINT not null,
+    booker_id BIGINT not null,
+    status varchar(8) not null,
+    foreign key (item_id) references items (id) on delete cascade,
+    foreign key (booker_id) references users (id) on delete cascade
+    );
+
+create index if not exists idx_bookings_item_period on bookings (item_id, start_date, end_date);
+create index if not exists idx_bookings_status_start on bookings (status, start_date);
+
+create table if not exists comments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    text VARCHAR(500) NOT NULL,
+    item_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created TIMESTAMP NOT NULL,
+    CONSTRAINT PK_COMMENTS PRIMARY KEY (id),
+    CONSTRAINT FK_COMMENT_FOR_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT FK_COMMENT_FOR_USER FOREIGN KEY (author_id) REFERENCES users (id)
+    );
+
+create table if not exists leases
+(
+    name varchar(64) PRIMARY KEY,
+    owner varchar(64) not null,
+    locked_until TIMESTAMP WITHOUT TIME ZONE not null
+    );
@@ -0,0 +1,84 @@
+create extension if not exists btree_gist;
+
+-- Бронирования секционированы по месяцам start_date. Месячные секции заранее создаёт
+-- BookingPartitionMaintenance, старые секции отключаются от bookings и переносятся в схему archive.
+-- Всё, что не попало в созданные месяцы, лежит в bookings_default.
+create schema if not exists archive;
+
+-- В базе, созданной до перехода на миграции, bookings - обычная таблица. Она переименовывается
+-- вместе с индексами и последовательностью id, чтобы их имена достались секционированной таблице;
+-- строки переносятся в неё ниже.
+do $$
+begin
+    if exists (select 1 from pg_class where oid = to_regclass('bookings') and relkind = 'r') then
+        alter table bookings rename to bookings_unpartitioned;
+        alter table bookings_unpartitioned rename constraint bookings_pkey to bookings_unpartitioned_pkey;
+        alter sequence bookings_id_seq rename to bookings_unpartitioned_id_seq;
+        drop index if exists idx_bookings_item_period;
+        drop index if exists idx_bookings_status_start;
+    end if;
+end
+$$;
+
+create table if not exists bookings
+(
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    start_date TIMESTAMP WITHOUT TIME ZONE not null,
+    end_date TIMESTAMP WITHOUT TIME ZONE,
+    item_id BIGINT not null,
+    booker_id BIGINT not null,
+    status varchar(8) not null,
+    primary key (id, start_date),
+    foreign key (item_id) references items (id) on delete cascade,
+    foreign key (booker_id) references users (id) on delete cascade
+    ) partition by range (start_date);
+
+create table if not exists bookings_default partition of bookings default;
+
+create index if not exists idx_bookings_item_period on bookings (item_id, start_date, end_date);
+create index if not exists idx_bookings_status_start on bookings (status, start_date);
+
+-- Перенос строк прежней таблицы с их id; пересекающиеся активные брони в ней
+-- остановят миграцию на ограничении исключения ниже
+do $$
+begin
+    if to_regclass('bookings_unpartitioned') is not null then
+        insert into bookings (id, start_date, end_date, item_id, booker_id, status) overriding system value
+            select id, start_date, end_date, item_id, booker_id, status from bookings_unpartitioned;
+        perform setval(pg_get_serial_sequence('bookings', 'id'),
+            coalesce((select max(id) from bookings), 0) + 1, false);
+        drop table bookings_unpartitioned;
+    end if;
+end
+$$;
+
+-- Ограничение исключения на секционированной таблице не поддерживается,
+-- поэтому оно задаётся на каждой секции: пересечения внутри секции отсекает база,
+-- пересечения через границу месяца - проверка в BookingServiceImpl.
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'ex_bookings_default_item_period') then
+        alter table bookings_default add constraint ex_bookings_default_item_period
+            exclude using gist (item_id with =, tsrange(start_date, end_date) with &&)
+            where (status in ('WAITING', 'APPROVED'));
+    end if;
+end
+$$;
+
+create table if not exists comments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    text VARCHAR(500) NOT NULL,
+    item_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created TIMESTAMP NOT NULL,
+    CONSTRAINT PK_COMMENTS PRIMARY KEY (id),
+    CONSTRAINT FK_COMMENT_FOR_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT FK_COMMENT_FOR_USER FOREIGN KEY (author_id) REFERENCES users (id)
+    );
+
+create table if not exists leases
+(
+    name varchar(64) PRIMARY KEY,
+    owner varchar(64) not null,
+    locked_until TIMESTAMP WITHOUT TIME ZONE not null
+    );
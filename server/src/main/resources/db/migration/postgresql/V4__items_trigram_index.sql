@@ -0,0 +1,7 @@
+create extension if not exists pg_trgm;
+
+-- Поиск подстроки в названии и описании доступных вещей (shareit.item-search.mode=trigram).
+-- Индекс частичный: недоступные вещи в поиск не попадают.
+create index if not exists idx_items_text_trgm on items
+    using gin (name gin_trgm_ops, description gin_trgm_ops)
+    where is_available = 'AVAILABLE';
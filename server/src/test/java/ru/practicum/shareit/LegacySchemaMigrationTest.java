@@ -0,0 +1,104 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Переход базы, созданной прежним schema.sql, на миграции в PostgreSQL. Нужна отдельная база
+ * с именем на _test, она очищается перед каждым тестом:
+ * mvn test -Ppostgres -Dshareit.test.postgres-url=jdbc:postgresql://localhost:5432/shareit_test
+ * (пользователь и пароль - shareit.test.postgres-user и shareit.test.postgres-password)
+ */
+@Tag("postgres")
+@EnabledIfSystemProperty(named = "shareit.test.postgres-url", matches = ".+")
+class LegacySchemaMigrationTest {
+    private static final String SCRATCH_SUFFIX = "_test";
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                System.getProperty("shareit.test.postgres-url"),
+                System.getProperty("shareit.test.postgres-user", "postgres"),
+                System.getProperty("shareit.test.postgres-password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String database = jdbcTemplate.queryForObject("select current_database()", String.class);
+        if (database == null || !database.endsWith(SCRATCH_SUFFIX)) {
+            throw new IllegalStateException("База " + database + " будет очищена; для теста нужна отдельная база "
+                    + "с именем на " + SCRATCH_SUFFIX);
+        }
+        flyway().clean();
+        jdbcTemplate.execute("drop schema if exists archive cascade");
+        new ResourceDatabasePopulator(new ClassPathResource("db/legacy/schema.sql")).execute(dataSource);
+    }
+
+    @Test
+    @DisplayName("Обычная таблица bookings прежней схемы становится секционированной с теми же строками и id")
+    void migrate_convertsBookings() {
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@mail.ru'), " +
+                "('booker', 'booker@mail.ru')");
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) " +
+                "values ('Дрель', 'Простая дрель', 'AVAILABLE', 1)");
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) values " +
+                "('2020-01-10 10:00', '2020-01-11 10:00', 1, 2, 'APPROVED'), " +
+                "('2020-02-10 10:00', '2020-02-11 10:00', 1, 2, 'REJECTED'), " +
+                "('2020-03-10 10:00', '2020-03-11 10:00', 1, 2, 'WAITING')");
+        jdbcTemplate.update("delete from bookings where id = 2");
+
+        flyway().migrate();
+
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "select relkind::text from pg_class where oid = 'bookings'::regclass", String.class));
+        assertNull(jdbcTemplate.queryForObject("select to_regclass('bookings_unpartitioned')::text", String.class));
+        assertEquals(List.of(1L, 3L), jdbcTemplate.queryForList(
+                "select id from bookings_default order by id", Long.class));
+        assertEquals(4L, jdbcTemplate.queryForObject("insert into bookings " +
+                "(start_date, end_date, item_id, booker_id, status) " +
+                "values ('2020-04-10 10:00', '2020-04-11 10:00', 1, 2, 'WAITING') returning id", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_constraint " +
+                "where conname = 'ex_bookings_default_item_period'", Integer.class));
+        assertEquals(List.of("idx_bookings_item_period", "idx_bookings_status_start"), jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where tablename = 'bookings' " +
+                        "and indexname in ('idx_bookings_item_period', 'idx_bookings_status_start') " +
+                        "order by indexname", String.class));
+    }
+
+    @Test
+    @DisplayName("Прежняя схема без бронирований тоже проходит все миграции")
+    void migrate_emptyLegacySchema() {
+        flyway().migrate();
+
+        assertEquals(1L, jdbcTemplate.queryForObject("insert into users (name, email) " +
+                "values ('owner', 'owner@mail.ru') returning id", Long.class));
+        assertEquals("p", jdbcTemplate.queryForObject(
+                "select relkind::text from pg_class where oid = 'bookings'::regclass", String.class));
+    }
+
+    /**
+     * Настройки Flyway как в application.properties
+     */
+    private Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .cleanDisabled(false)
+                .load();
+    }
+}
@@ -0,0 +1,312 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.StatementRecorder.RecordedStatement;
+import ru.practicum.shareit.booking.BookingPartitions;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.item.ItemSearch;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов в PostgreSQL: то, что не проверить на H2. Запросы репозиториев и поиска по триграммам
+ * записываются при вызове и прогоняются через EXPLAIN (FORMAT JSON); тест падает на Seq Scan по таблице
+ * или секции больше SCAN_THRESHOLD строк, не разрешённый в ALLOWED_SCANS, проверяет отсечение месячных секций bookings, индекс pg_trgm
+ * и ограничение исключения GiST на секциях. Нужна отдельная база с именем на _test, она очищается:
+ * mvn test -Ppostgres -Dshareit.test.postgres-url=jdbc:postgresql://localhost:5432/shareit_test
+ * (пользователь и пароль - shareit.test.postgres-user и shareit.test.postgres-password)
+ */
+@Tag("postgres")
+@EnabledIfSystemProperty(named = "shareit.test.postgres-url", matches = ".+")
+@SpringBootTest(properties = {
+        "shareit.booking-admission.mode=advisory",
+        "shareit.item-search.mode=trigram",
+        "spring.flyway.clean-disabled=false"})
+@ActiveProfiles("test")
+@Import({StatementRecorder.Config.class, PostgresQueryPlanTest.CleanDatabase.class})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class PostgresQueryPlanTest {
+    private static final String SCRATCH_SUFFIX = "_test";
+    private static final int SCAN_THRESHOLD = 1000;
+    private static final int USERS = 2000;
+    private static final int ITEMS = 20_000;
+    private static final int BOOKINGS = 200_000;
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2029, 7);
+    private static final YearMonth LAST_MONTH = YearMonth.of(2030, 6);
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 3, 10, 12, 0);
+    private static final LocalDateTime TO = FROM.plusDays(1);
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * Полные чтения, без которых запрос не выполнить: метод -> таблица (с её секциями)
+     */
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            // брони, начавшиеся в любом месяце до конца периода, могут его перекрывать: при сотнях
+            // найденных вещей анти-соединение читает эти секции целиком дешевле проб индекса по каждой вещи
+            "TrigramItemSearch.searchFree", "bookings",
+            "TrigramItemSearch.countFree", "bookings");
+
+    private final BookingRepository bookingRepository;
+    private final BookingPartitions partitions;
+    private final ItemSearch itemSearch;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Runnable> calls = new LinkedHashMap<>();
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> System.getProperty("shareit.test.postgres-url"));
+        registry.add("spring.datasource.username",
+                () -> System.getProperty("shareit.test.postgres-user", "postgres"));
+        registry.add("spring.datasource.password",
+                () -> System.getProperty("shareit.test.postgres-password", ""));
+    }
+
+    @BeforeEach
+    void setUp() {
+        seed();
+        List<Long> ids = List.of(1L, 2L, 3L);
+        call("BookingRepository.existsOverlapping", () -> bookingRepository.existsOverlapping(1L, FROM, TO));
+        call("BookingRepository.findBusyItemIds", () -> bookingRepository.findBusyItemIds(ids, FROM, TO));
+        call("BookingRepository.findActivePeriodsByItemIdBetween",
+                () -> bookingRepository.findActivePeriodsByItemIdBetween(1L, FROM, TO));
+        call("BookingSearchRepository.search", () -> {
+            for (BookingRole role : BookingRole.values()) {
+                bookingRepository.search(role, 1L, SearchStatus.ALL, FROM, null, PageRequest.of(0, 20));
+            }
+        });
+        call("TrigramItemSearch.search", () -> itemSearch.search("перфоратор", 0, 20));
+        call("TrigramItemSearch.searchFree", () -> itemSearch.searchFree("перфоратор", FROM, TO, 0, 20));
+        call("TrigramItemSearch.count", () -> itemSearch.count("перфоратор", 1000));
+        call("TrigramItemSearch.countFree", () -> itemSearch.countFree("перфоратор", FROM, TO, 1000));
+    }
+
+    @Test
+    @DisplayName("Запросы не читают перебором большие таблицы и секции")
+    void noSeqScans() {
+        Map<String, Long> sizes = relationSizes();
+        Map<String, String> parents = partitionParents();
+        List<String> violations = new ArrayList<>();
+        calls.forEach((name, call) -> {
+            for (RecordedStatement statement : StatementRecorder.record(transactionTemplate, call)) {
+                JsonNode plan = explain(statement);
+                for (String relation : relations(plan, "Seq Scan")) {
+                    String table = parents.getOrDefault(relation, relation);
+                    if (sizes.getOrDefault(relation, 0L) > SCAN_THRESHOLD && !table.equals(ALLOWED_SCANS.get(name))) {
+                        violations.add(name + ": Seq Scan on " + relation + "\n" + plan.toPrettyString());
+                    }
+                }
+            }
+        });
+
+        assertEquals(List.of(), violations);
+    }
+
+    /**
+     * Брони пересекают период, если начались до его конца, поэтому отсекаются только
+     * секции месяцев после конца периода
+     */
+    @Test
+    @DisplayName("Запросы периода вещи не читают секции месяцев после конца периода")
+    void partitionPruning() {
+        Set<String> later = new TreeSet<>();
+        for (YearMonth month = YearMonth.from(TO).plusMonths(1); !month.isAfter(LAST_MONTH);
+             month = month.plusMonths(1)) {
+            later.add(partitionName(month));
+        }
+        for (String name : List.of("BookingRepository.existsOverlapping", "BookingRepository.findBusyItemIds",
+                "BookingRepository.findActivePeriodsByItemIdBetween")) {
+            List<RecordedStatement> statements = StatementRecorder.record(transactionTemplate, calls.get(name));
+            assertEquals(1, statements.size(), name);
+            JsonNode plan = explain(statements.get(0));
+            Set<String> read = relations(plan, null);
+
+            assertTrue(read.contains(partitionName(YearMonth.from(FROM))), name + "\n" + plan.toPrettyString());
+            assertTrue(read.stream().noneMatch(later::contains), name + "\n" + plan.toPrettyString());
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск подстроки в вещах идёт по индексу pg_trgm")
+    void trigramIndex() {
+        for (String name : List.of("TrigramItemSearch.search", "TrigramItemSearch.count")) {
+            List<RecordedStatement> statements = StatementRecorder.record(transactionTemplate, calls.get(name));
+            assertEquals(1, statements.size(), name);
+            JsonNode plan = explain(statements.get(0));
+
+            assertTrue(indexes(plan).contains("idx_items_text_trgm"), name + "\n" + plan.toPrettyString());
+        }
+    }
+
+    @Test
+    @DisplayName("На каждой месячной секции есть ограничение исключения GiST, пересечение внутри месяца отклоняется")
+    void exclusionIndex() {
+        for (YearMonth month = FIRST_MONTH; !month.isAfter(LAST_MONTH); month = month.plusMonths(1)) {
+            String table = partitionName(month);
+            assertEquals(List.of("ex_" + table + "_item_period"), jdbcTemplate.queryForList("select indexname " +
+                    "from pg_indexes where tablename = ? and indexdef like '%USING gist%'", String.class, table));
+        }
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, 1, 2, 'APPROVED')", FROM, TO);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("insert into bookings " +
+                "(start_date, end_date, item_id, booker_id, status) values (?, ?, 1, 3, 'WAITING')",
+                FROM.plusHours(1), TO.plusHours(1)));
+    }
+
+    private void call(String name, Runnable call) {
+        calls.put(name, call);
+    }
+
+    private JsonNode explain(RecordedStatement statement) {
+        try {
+            return JSON.readTree(StatementRecorder.explain(jdbcTemplate, "EXPLAIN (FORMAT JSON) ", statement))
+                    .get(0).get("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Таблицы и секции, которые читают узлы плана; без nodeType - все узлы
+     */
+    private static Set<String> relations(JsonNode plan, String nodeType) {
+        Set<String> relations = new TreeSet<>();
+        collect(plan, node -> {
+            if (node.has("Relation Name") && (nodeType == null || nodeType.equals(node.get("Node Type").asText()))) {
+                relations.add(node.get("Relation Name").asText());
+            }
+        });
+        return relations;
+    }
+
+    private static Set<String> indexes(JsonNode plan) {
+        Set<String> indexes = new TreeSet<>();
+        collect(plan, node -> {
+            if (node.has("Index Name")) {
+                indexes.add(node.get("Index Name").asText());
+            }
+        });
+        return indexes;
+    }
+
+    private static void collect(JsonNode node, Consumer<JsonNode> visitor) {
+        visitor.accept(node);
+        if (node.has("Plans")) {
+            node.get("Plans").forEach(child -> collect(child, visitor));
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("bookings_p%d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private Map<String, Long> relationSizes() {
+        return jdbcTemplate.query("select relname, reltuples::bigint from pg_class where relkind = 'r'",
+                        (rs, n) -> Map.entry(rs.getString(1), rs.getLong(2)))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::max, TreeMap::new));
+    }
+
+    /**
+     * Секция -> секционированная таблица
+     */
+    private Map<String, String> partitionParents() {
+        Map<String, String> parents = new TreeMap<>();
+        jdbcTemplate.query("select c.relname, p.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent",
+                rs -> {
+                    parents.put(rs.getString(1), rs.getString(2));
+                });
+        return parents;
+    }
+
+    private void seed() {
+        jdbcTemplate.execute("truncate users, requests, items, bookings, comments, leases restart identity cascade");
+        Set<YearMonth> existing = partitions.findMonths();
+        for (YearMonth month = FIRST_MONTH; !month.isAfter(LAST_MONTH); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                partitions.create(month);
+            }
+        }
+        jdbcTemplate.update("insert into users (name, email) " +
+                "select 'user' || i, 'user' || i || '@mail.ru' from generate_series(1, ?) as i", USERS);
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) " +
+                "select case when i % 2000 = 0 then 'Перфоратор ' else w[1 + i % 40] || ' ' end || i, " +
+                "'Б/у, ' || w[1 + (i / 40) % 40] || ' в комплекте', " +
+                "case when i % 10 = 0 then 'UNAVAILABLE' else 'AVAILABLE' end, 1 + i % ? " +
+                "from generate_series(1, ?) as i, (select array[" +
+                "'Дрель', 'Лестница', 'Пила', 'Молоток', 'Отвёртка', 'Стремянка', 'Палатка', 'Спальник', " +
+                "'Велосипед', 'Самокат', 'Лыжи', 'Сноуборд', 'Коньки', 'Мангал', 'Котелок', 'Фонарь', " +
+                "'Рюкзак', 'Удочка', 'Лодка', 'Насос', 'Газонокосилка', 'Триммер', 'Секатор', 'Лопата', " +
+                "'Грабли', 'Тачка', 'Пылесос', 'Утюг', 'Миксер', 'Блендер', 'Мультиварка', 'Проектор', " +
+                "'Колонка', 'Гитара', 'Синтезатор', 'Штатив', 'Фотоаппарат', 'Объектив', 'Шуруповёрт', " +
+                "'Болгарка']) as v(w)", USERS, ITEMS);
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "select ?::timestamp + i * interval '150 seconds', " +
+                        "?::timestamp + i * interval '150 seconds' + interval '1 hour', 1 + i % ?, 1 + (i + 1) % ?, " +
+                        "(array['WAITING', 'APPROVED', 'REJECTED', 'CANCELED'])[1 + i % 4] " +
+                        "from generate_series(0, ? - 1) as i",
+                FIRST_MONTH.atDay(1).atStartOfDay(), FIRST_MONTH.atDay(1).atStartOfDay(), ITEMS, USERS, BOOKINGS);
+        jdbcTemplate.execute("vacuum analyze");
+    }
+
+    /**
+     * Базу с именем не на _test не очищает; остальные очищает и заново применяет миграции
+     */
+    @TestConfiguration
+    static class CleanDatabase {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                String database = new JdbcTemplate(flyway.getConfiguration().getDataSource())
+                        .queryForObject("select current_database()", String.class);
+                if (database == null || !database.endsWith(SCRATCH_SUFFIX)) {
+                    throw new IllegalStateException("База " + database + " будет очищена; для теста нужна "
+                            + "отдельная база с именем на " + SCRATCH_SUFFIX);
+                }
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package ru.practicum.shareit;
+
+import java.lang.reflect.Modifier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.StatementRecorder.RecordedStatement;
+import ru.practicum.shareit.booking.BookingBatchRepository;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingSearchRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов всех методов репозиториев на заполненной базе.
+ * Каждый метод вызывается в откатываемой транзакции, выполненные им SQL-запросы
+ * с теми же параметрами прогоняются через EXPLAIN. Тест падает, если план читает
+ * целиком таблицу больше SCAN_THRESHOLD строк и это не разрешено в ALLOWED_SCANS.
+ * Планы сохраняются в target/query-plans.txt.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:cleanup.sql"})
+@Import(StatementRecorder.Config.class)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class QueryPlanTest {
+    private static final int SCAN_THRESHOLD = 1000;
+    private static final int USERS = 2000;
+    private static final int REQUESTS = 2000;
+    private static final int ITEMS = 2000;
+    private static final int BOOKINGS = 6000;
+    private static final int COMMENTS = 2000;
+    private static final int CURSOR_BOOKINGS = 3000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final Path REPORT = Path.of("target", "query-plans.txt");
+
+    /**
+     * Полные чтения, без которых запрос не выполнить: метод -> таблица
+     */
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            // поиск подстроки в названии и описании
+            "ItemRepository.findAvailableIdsByText", "ITEMS",
+            "ItemRepository.findAvailableFreeIdsByText", "ITEMS",
+            // все запросы, кроме запросов пользователя
+            "ItemRequestRepository.findAll", "REQUESTS");
+
+    private static final List<Class<?>> REPOSITORIES = List.of(BookingRepository.class,
+            BookingSearchRepository.class, BookingBatchRepository.class, ItemRepository.class, CommentRepository.class,
+            ItemRequestRepository.class, UserRepository.class);
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan \\*/");
+    private static final Pattern INDEX_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+) \\*/");
+    private static final Pattern ITEMS_TABLE = Pattern.compile("\\bitems\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    private final BookingRepository bookingRepository;
+    private final BookingBatchRepository batchRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository requestRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Runnable> calls = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        seed();
+        List<Long> ids = List.of(1L, 2L, 3L);
+        call("BookingRepository.existsFinishedBooking", () -> bookingRepository.existsFinishedBooking(2L, 1L, NOW));
+        call("BookingRepository.existsOverlapping",
+                () -> bookingRepository.existsOverlapping(1L, NOW, NOW.plusDays(1)));
+        call("BookingRepository.findBusyItemIds",
+                () -> bookingRepository.findBusyItemIds(List.of(1L, 2L, 3L), NOW, NOW.plusDays(1)));
+        call("BookingRepository.findActivePeriodsByItemIdBetween",
+                () -> bookingRepository.findActivePeriodsByItemIdBetween(1L, NOW, NOW.plusDays(1)));
+        call("BookingRepository.findWaitingByStarts",
+                () -> bookingRepository.findWaitingByStarts(1L, 2L, List.of(NOW, NOW.plusDays(1))));
+        call("BookingRepository.findDecisionViews", () -> bookingRepository.findDecisionViews(ids));
+        call("BookingBatchRepository.insert", () -> batchRepository.insert(List.<Object[]>of(
+                BookingBatchRepository.row(NOW.plusYears(1), NOW.plusYears(1).plusDays(1), 1L, 2L,
+                        BookingStatus.WAITING))));
+        call("BookingBatchRepository.decide",
+                () -> batchRepository.decide(1L, Map.of(1L, BookingStatus.APPROVED), NOW));
+        call("BookingRepository.compareAndSetStatus",
+                () -> bookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED));
+        call("BookingRepository.findStaleWaiting",
+                () -> bookingRepository.findStaleWaiting(NOW, PageRequest.of(0, 100)));
+        call("BookingRepository.expireWaiting", () -> bookingRepository.expireWaiting(ids));
+        call("BookingRepository.countStatusesByOwnerId", () -> bookingRepository.countStatusesByOwnerId(1L));
+        call("BookingRepository.countByOwnerId", () -> bookingRepository.countByOwnerId(1L, NOW));
+        call("BookingRepository.findFirstByItem_IdAndStartBeforeOrderByStartDesc",
+                () -> bookingRepository.findFirstByItem_IdAndStartBeforeOrderByStartDesc(1L, NOW));
+        call("BookingRepository.findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc",
+                () -> bookingRepository.findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc(1L, NOW,
+                        List.of(BookingStatus.REJECTED, BookingStatus.CANCELED)));
+        call("BookingRepository.findLastBookingsByItemIds",
+                () -> bookingRepository.findLastBookingsByItemIds(ids, NOW));
+        call("BookingRepository.findNextBookingsByItemIds",
+                () -> bookingRepository.findNextBookingsByItemIds(ids, NOW));
+        call("BookingSearchRepository.search", () -> {
+            for (BookingRole role : BookingRole.values()) {
+                for (SearchStatus state : SearchStatus.values()) {
+                    bookingRepository.search(role, 1L, state, NOW, null, PageRequest.of(0, 20));
+                }
+                bookingRepository.search(role, 1L, SearchStatus.ALL, NOW, new BookingCursor(NOW, 100L),
+                        PageRequest.of(0, 20));
+            }
+        });
+        call("ItemRepository.findAvailableIdsByText",
+                () -> itemRepository.findAvailableIdsByText("дрель", PageRequest.of(0, 20)));
+        call("ItemRepository.findAvailableFreeIdsByText", () -> itemRepository.findAvailableFreeIdsByText("дрель",
+                NOW, NOW.plusDays(1), PageRequest.of(0, 20)));
+        call("ItemRepository.findAvailableOutcomesByIds", () -> itemRepository.findAvailableOutcomesByIds(ids));
+        call("ItemRepository.deleteByUserIdAndItemId", () -> itemRepository.deleteByUserIdAndItemId(1L, 2L));
+        call("ItemRepository.getAllByUserId", () -> itemRepository.getAllByUserId(1L));
+        call("ItemRepository.getByOwnerId", () -> itemRepository.getByOwnerId(1L));
+        call("ItemRepository.findAllByUserIdPage",
+                () -> itemRepository.findAllByUserIdPage(1L, PageRequest.of(0, 20)));
+        call("ItemRepository.findAllByRequestId", () -> itemRepository.findAllByRequestId(1L));
+        call("CommentRepository.findAllByItemId", () -> commentRepository.findAllByItemId(1L));
+        call("ItemRequestRepository.findAllByUserId", () -> requestRepository.findAllByUserId(1L));
+        call("ItemRequestRepository.findAll", () -> requestRepository.findAll(1L, PageRequest.of(0, 20)));
+        call("UserRepository.getUserByEmail", () -> userRepository.getUserByEmail("user1@mail.ru"));
+    }
+
+    @Test
+    @DisplayName("Для каждого метода репозиториев есть вызов в тесте планов")
+    void everyMethodIsCovered() {
+        Set<String> declared = REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isSynthetic() && !method.isDefault()
+                                && !Modifier.isStatic(method.getModifiers()))
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertEquals(declared, new TreeSet<>(calls.keySet()));
+    }
+
+    @Test
+    @DisplayName("Запросы репозиториев не читают большие таблицы целиком")
+    void noFullScans() throws IOException {
+        Map<String, Long> tableSizes = tableSizes();
+        Map<String, String> indexTables = indexTables();
+        StringBuilder report = new StringBuilder();
+        List<String> violations = new ArrayList<>();
+        calls.forEach((name, call) -> {
+            List<RecordedStatement> statements = record(call);
+            assertTrue(!statements.isEmpty(), name + " не выполнил ни одного запроса");
+            report.append("== ").append(name).append('\n');
+            for (RecordedStatement statement : statements) {
+                String plan = explain(statement);
+                report.append(plan).append("\n\n");
+                for (String table : scannedTables(plan, indexTables)) {
+                    if (tableSizes.getOrDefault(table, 0L) > SCAN_THRESHOLD
+                            && !table.equals(ALLOWED_SCANS.get(name))) {
+                        violations.add(name + ": полное чтение " + table + "\n" + plan);
+                    }
+                }
+            }
+        });
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report, StandardCharsets.UTF_8);
+        log.info("Планы запросов записаны в {}", REPORT.toAbsolutePath());
+
+        assertEquals(List.of(), violations);
+    }
+
+    /**
+     * H2 сортирует бронирования арендатора сам, поэтому первая страница читает их все;
+     * страница по курсору в конце выборки должна читать только строки индекса не новее курсора
+     */
+    @Test
+    @DisplayName("Страница по курсору не перечитывает бронирования до курсора")
+    void cursorPageSkipsRowsBeforeCursor() {
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, ?, 1, 'APPROVED')",
+                rows(CURSOR_BOOKINGS, i -> new Object[]{Timestamp.valueOf(NOW.minusHours(i + 1)),
+                        Timestamp.valueOf(NOW.minusHours(i)), i % ITEMS + 1}));
+        BookingCursor deep = jdbcTemplate.queryForObject("select start_date, id from bookings " +
+                        "where booker_id = 1 order by start_date desc, id desc offset ? rows fetch next 1 row only",
+                (rs, n) -> new BookingCursor(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)),
+                CURSOR_BOOKINGS - 100);
+
+        long first = scanCount(() -> bookingRepository.search(BookingRole.BOOKER, 1L, SearchStatus.ALL, NOW,
+                null, PageRequest.of(0, 20)));
+        long last = scanCount(() -> bookingRepository.search(BookingRole.BOOKER, 1L, SearchStatus.ALL, NOW,
+                deep, PageRequest.of(0, 20)));
+
+        assertTrue(last * 10 < first, "первая страница: " + first + " строк, страница по курсору: " + last);
+    }
+
+    @Test
+    @DisplayName("Поиск бронирований владельца соединяет items один раз")
+    void ownerSearchJoinsItemsOnce() {
+        List<RecordedStatement> statements = record(() -> bookingRepository.search(BookingRole.OWNER, 1L,
+                SearchStatus.ALL, NOW, null, PageRequest.of(0, 20)));
+
+        assertEquals(1, statements.size());
+        Matcher items = ITEMS_TABLE.matcher(statements.get(0).sql);
+        int joins = 0;
+        while (items.find()) {
+            joins++;
+        }
+        assertEquals(1, joins, statements.get(0).sql);
+    }
+
+    /**
+     * Число строк, прочитанных единственным запросом вызова, по EXPLAIN ANALYZE
+     */
+    private long scanCount(Runnable call) {
+        List<RecordedStatement> statements = record(call);
+        assertEquals(1, statements.size());
+        String plan = explain("EXPLAIN ANALYZE ", statements.get(0));
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        long rows = 0;
+        while (matcher.find()) {
+            rows += Long.parseLong(matcher.group(1));
+        }
+        return rows;
+    }
+
+    private void call(String name, Runnable call) {
+        calls.put(name, call);
+    }
+
+    private List<RecordedStatement> record(Runnable call) {
+        return StatementRecorder.record(transactionTemplate, call);
+    }
+
+    private String explain(RecordedStatement statement) {
+        return explain("EXPLAIN ", statement);
+    }
+
+    private String explain(String prefix, RecordedStatement statement) {
+        return StatementRecorder.explain(jdbcTemplate, prefix, statement);
+    }
+
+    /**
+     * Таблицы, которые план читает целиком: перебором строк или индексом без условия
+     */
+    private static Set<String> scannedTables(String plan, Map<String, String> indexTables) {
+        Set<String> tables = new TreeSet<>();
+        Matcher tableScan = TABLE_SCAN.matcher(plan);
+        while (tableScan.find()) {
+            tables.add(tableScan.group(1));
+        }
+        Matcher indexScan = INDEX_SCAN.matcher(plan);
+        while (indexScan.find()) {
+            String table = indexTables.get(indexScan.group(1));
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    private Map<String, Long> tableSizes() {
+        Map<String, Long> sizes = new TreeMap<>();
+        for (String table : List.of("USERS", "REQUESTS", "ITEMS", "BOOKINGS", "COMMENTS")) {
+            sizes.put(table, jdbcTemplate.queryForObject("select count(*) from " + table, Long.class));
+        }
+        return sizes;
+    }
+
+    private Map<String, String> indexTables() {
+        Map<String, String> tables = new TreeMap<>();
+        jdbcTemplate.query("select index_name, table_name from information_schema.indexes " +
+                        "where table_schema = 'PUBLIC'",
+                rs -> {
+                    tables.put(rs.getString(1), rs.getString(2));
+                });
+        return tables;
+    }
+
+    private void seed() {
+        jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)",
+                rows(USERS, i -> new Object[]{"user" + i, "user" + i + "@mail.ru"}));
+        jdbcTemplate.batchUpdate("insert into requests (description, requestor_id, created_time) values (?, ?, ?)",
+                rows(REQUESTS, i -> new Object[]{"запрос " + i, i % USERS + 1,
+                        Timestamp.valueOf(NOW.minusHours(i))}));
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id, request_id) " +
+                        "values (?, ?, 'AVAILABLE', ?, ?)",
+                rows(ITEMS, i -> new Object[]{"вещь " + i, "описание " + i, i % USERS + 1,
+                        i % 2 == 0 ? i % REQUESTS + 1 : null}));
+        BookingStatus[] statuses = BookingStatus.values();
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, ?, ?, ?)",
+                rows(BOOKINGS, i -> new Object[]{Timestamp.valueOf(NOW.plusHours(i - BOOKINGS / 2)),
+                        Timestamp.valueOf(NOW.plusHours(i - BOOKINGS / 2 + 1)), i % ITEMS + 1,
+                        (i + 1) % USERS + 1, statuses[i % statuses.length].name()}));
+        jdbcTemplate.batchUpdate("insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)",
+                rows(COMMENTS, i -> new Object[]{"отзыв " + i, i % ITEMS + 1, (i + 1) % USERS + 1,
+                        Timestamp.valueOf(NOW.minusHours(i))}));
+        jdbcTemplate.execute("analyze");
+    }
+
+    private static List<Object[]> rows(int count, IntFunction<Object[]> row) {
+        return IntStream.range(0, count).mapToObj(row).collect(Collectors.toList());
+    }
+}
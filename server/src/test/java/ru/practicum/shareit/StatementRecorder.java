@@ -0,0 +1,143 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Запоминает SQL и параметры подготовленных запросов, выполненных в потоке во время записи,
+ * и прогоняет их через EXPLAIN. Источник данных оборачивается конфигурацией {@link Config}.
+ */
+final class StatementRecorder {
+    private static final ThreadLocal<List<RecordedStatement>> STATEMENTS = new ThreadLocal<>();
+
+    private StatementRecorder() {
+    }
+
+    /**
+     * SQL-запросы вызова в транзакции, которая затем откатывается
+     */
+    static List<RecordedStatement> record(TransactionTemplate transactionTemplate, Runnable call) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            STATEMENTS.set(statements);
+            try {
+                call.run();
+            } finally {
+                STATEMENTS.remove();
+                status.setRollbackOnly();
+            }
+        });
+        return statements;
+    }
+
+    /**
+     * Первая строка результата запроса с префиксом EXPLAIN и теми же параметрами
+     */
+    static String explain(JdbcTemplate jdbcTemplate, String prefix, RecordedStatement statement) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement(prefix + statement.sql)) {
+                for (Map.Entry<Method, Object[]> parameter : statement.parameters.values()) {
+                    parameter.getKey().invoke(explain, parameter.getValue());
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return connection(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return connection(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("prepareStatement") && args[0] instanceof String) {
+                return statement((PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement statement(PreparedStatement target, String sql) {
+        Map<Integer, Map.Entry<Method, Object[]>> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], Map.entry(method, args));
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)
+                    && STATEMENTS.get() != null) {
+                STATEMENTS.get().add(new RecordedStatement(sql, new TreeMap<>(parameters)));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    static final class RecordedStatement {
+        final String sql;
+        private final Map<Integer, Map.Entry<Method, Object[]>> parameters;
+
+        private RecordedStatement(String sql, Map<Integer, Map.Entry<Method, Object[]>> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+}
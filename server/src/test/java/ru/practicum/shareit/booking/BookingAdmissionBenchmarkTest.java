@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Пропускная способность создания бронирований при параллельных запросах:
+ * все потоки бронируют одну вещь или каждый поток - свою.
+ * Запускается отдельно: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:cleanup.sql"})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class BookingAdmissionBenchmarkTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int BOOKINGS_PER_THREAD = 200;
+    private static final int WARMUP = 200;
+
+    private final BookingServiceImpl bookingService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long bookerId;
+    private List<Long> itemIds;
+    private int round;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@mail.ru')");
+        jdbcTemplate.update("insert into users (name, email) values ('booker', 'booker@mail.ru')");
+        long ownerId = jdbcTemplate.queryForObject("select id from users where email = 'owner@mail.ru'", Long.class);
+        bookerId = jdbcTemplate.queryForObject("select id from users where email = 'booker@mail.ru'", Long.class);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < THREADS[THREADS.length - 1]; i++) {
+            items.add(new Object[]{"Дрель " + i, "Дрель номер " + i, "AVAILABLE", ownerId});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id) values (?, ?, ?, ?)",
+                items);
+        itemIds = jdbcTemplate.queryForList("select id from items order by id", Long.class);
+    }
+
+    @Test
+    @DisplayName("Бронирования разных вещей не ждут друг друга")
+    void compareSameItemWithDistinctItems() throws Exception {
+        run(THREADS[THREADS.length - 1], WARMUP / THREADS[THREADS.length - 1], false);
+        log.info(String.format("%-8s %16s %16s", "потоков", "одна вещь, 1/с", "разные вещи, 1/с"));
+        for (int threads : THREADS) {
+            long sameItem = run(threads, BOOKINGS_PER_THREAD, true);
+            long distinctItems = run(threads, BOOKINGS_PER_THREAD, false);
+            log.info(String.format("%-8d %16d %16d", threads, sameItem, distinctItems));
+        }
+    }
+
+    /**
+     * Каждый поток создаёт perThread непересекающихся бронирований; возвращает бронирований в секунду
+     */
+    private long run(int threads, int perThread, boolean sameItem) throws Exception {
+        int base = round++ * THREADS[THREADS.length - 1] * BOOKINGS_PER_THREAD;
+        AtomicInteger slot = new AtomicInteger(base);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Long itemId = itemIds.get(sameItem ? 0 : t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    LocalDateTime from = NOW.plusHours(slot.getAndIncrement());
+                    bookingService.saveNewBooking(from, from.plusMinutes(30), itemId, bookerId);
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        assertEquals(threads * perThread, slot.get() - base);
+        return TimeUnit.SECONDS.toNanos(1) * threads * perThread / elapsed;
+    }
+}
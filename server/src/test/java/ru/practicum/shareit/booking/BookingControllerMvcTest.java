@@ -9,10 +9,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingImportErrorDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
 import ru.practicum.shareit.booking.dto.BookingIncomeDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.DecisionOutcome;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.booking.dto.SeriesFrequency;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequest;
@@ -22,9 +31,12 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -71,8 +83,12 @@ class BookingControllerMvcTest {
         booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
         booking2 = new Booking(2L, start, end, item2, booker, BookingStatus.WAITING);
         bookingIncomeDto = new BookingIncomeDto(1L, start, end, 1L);
-        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end, item1, booker, booking1.getBookingStatus().name());
-        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end, item2, booker, booking2.getBookingStatus().name());
+        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
+        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end,
+                BookingMapper.toBookingItemDto(item2), BookingMapper.toBookerDto(booker),
+                booking2.getBookingStatus().name());
     }
 
     @Test
@@ -130,6 +146,83 @@ class BookingControllerMvcTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Решение владельца по списку бронирований")
+    void decideBookings() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false));
+        List<BookingDecisionResultDto> outcomes = List.of(
+                new BookingDecisionResultDto(1L, DecisionOutcome.APPROVED),
+                new BookingDecisionResultDto(2L, DecisionOutcome.NOT_WAITING));
+        when(bookingService.decideBookings(2L, decisions)).thenReturn(outcomes);
+
+        String result = mockMvc.perform(patch("/bookings/decisions")
+                        .header("X-Sharer-User-Id", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(outcomes), result);
+    }
+
+    @Test
+    @DisplayName("Сводка бронирований владельца")
+    void getOwnerSummary() throws Exception {
+        BookingSummaryDto summary = new BookingSummaryDto(7, 1, 2, 4, 3, 1);
+        when(bookingService.getOwnerSummary(2L)).thenReturn(summary);
+
+        String result = mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(summary), result);
+    }
+
+    @Test
+    @DisplayName("Серия бронирований")
+    void saveBookingSeries() throws Exception {
+        BookingSeriesDto series = new BookingSeriesDto(1L, start, start.plusHours(2), SeriesFrequency.WEEKLY,
+                1, 2, null);
+        when(bookingService.saveBookingSeries(1L, series)).thenReturn(List.of(bookingOutcomeDto, bookingOutcomeDto2));
+
+        String result = mockMvc.perform(post("/bookings/series")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(series))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(List.of(bookingOutcomeDto, bookingOutcomeDto2)), result);
+    }
+
+    @Test
+    @DisplayName("Импорт бронирований из NDJSON")
+    void importBookings() throws Exception {
+        BookingImportResultDto report = new BookingImportResultDto(2, 1, 1,
+                List.of(new BookingImportErrorDto(2, "Строка не является бронированием в формате JSON.")));
+        when(bookingService.importBookings(eq(2L), any())).thenReturn(report);
+
+        String result = mockMvc.perform(post("/bookings/import")
+                        .header("X-Sharer-User-Id", 2L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"itemId\":1,\"bookerId\":1,\"start\":\"2030-01-01T12:00:00\"," +
+                                "\"end\":\"2030-01-02T12:00:00\"}\nnot json\n"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(report), result);
+    }
+
     @Test
     @DisplayName("Выдает бронирование по userId")
     void getBookingById() throws Exception {
@@ -159,9 +252,8 @@ class BookingControllerMvcTest {
     @Test
     @DisplayName("Получение списка бронирований по userId")
     void getBookingsByUser() throws Exception {
-        List<Booking> bookingList = List.of(booking1, booking2);
-        when(bookingService.getBookingsByUser(1L, SearchStatus.ALL, 0, 10)).thenReturn(bookingList);
-        List<BookingOutcomeDto> dtoList = bookingList.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        List<BookingOutcomeDto> dtoList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
+        when(bookingService.getBookingsByUser(1L, SearchStatus.ALL, 0, 10)).thenReturn(dtoList);
 
         String result = mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -194,4 +286,55 @@ class BookingControllerMvcTest {
 
         assertEquals(objectMapper.writeValueAsString(dtoList), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Страница бронирований владельца по курсору возвращает следующий курсор")
+    void getBookingsByOwnerAfter() throws Exception {
+        BookingCursor cursor = new BookingCursor(end, 7L);
+        List<BookingOutcomeDto> dtoList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
+        when(bookingService.getBookingsByOwnerAfter(1L, SearchStatus.ALL, cursor, 2)).thenReturn(dtoList);
+
+        String nextCursor = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", cursor.encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(BookingController.NEXT_CURSOR_HEADER);
+
+        assertEquals(BookingCursor.of(bookingOutcomeDto2), BookingCursor.decode(nextCursor));
+    }
+
+    @Test
+    @DisplayName("Последняя страница бронирований пользователя по курсору")
+    void getBookingsByUserAfter_lastPage() throws Exception {
+        when(bookingService.getBookingsByUserAfter(1L, SearchStatus.ALL, null, 10))
+                .thenReturn(List.of(bookingOutcomeDto));
+
+        String nextCursor = mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(BookingController.NEXT_CURSOR_HEADER);
+
+        assertNull(nextCursor);
+    }
+
+    @Test
+    @DisplayName("Курсор передаётся в сервис вместе со STATE")
+    void getBookingsByUserAfter_withState() throws Exception {
+        when(bookingService.getBookingsByUserAfter(1L, SearchStatus.PAST, null, 10))
+                .thenReturn(List.of(bookingOutcomeDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "PAST")
+                        .param("cursor", ""))
+                .andExpect(status().isOk());
+
+        verify(bookingService).getBookingsByUserAfter(1L, SearchStatus.PAST, null, 10);
+    }
+}
@@ -60,15 +60,20 @@ class BookingControllerTest {
         item2 = new Item(2L, "item2", "description2", Status.UNAVAILABLE, owner, request2);
         booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
         booking2 = new Booking(2L, start, end, item2, booker, BookingStatus.WAITING);
-        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end, item1, booker, booking1.getBookingStatus().name());
-        bookingOutcomeDto2 = new BookingOutcomeDto(1L, start, end, item2, booker, booking2.getBookingStatus().name());
+        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
+        bookingOutcomeDto2 = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item2), BookingMapper.toBookerDto(booker),
+                booking2.getBookingStatus().name());
     }
 
     @Test
     @DisplayName("Сохранение бронирования")
     void saveNewBookingTest() {
         BookingOutcomeDto testDto = new BookingOutcomeDto(
-                1L, start, end, item1, booker, booking1.getBookingStatus().name());
+                1L, start, end, BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
         when(bookingService.saveNewBooking(any(), any(), anyLong(), anyLong())).thenReturn(testDto);
 
         bookingController.saveNewBooking(1L, new BookingIncomeDto(1L, start, end, 1L));
@@ -80,7 +85,8 @@ class BookingControllerTest {
     @DisplayName("Возвращает запрос")
     void saveNewBooking_thenReturnBookingOutcomeDto() {
         BookingOutcomeDto testDto = new BookingOutcomeDto(
-                1L, start, end, item1, booker, booking1.getBookingStatus().name());
+                1L, start, end, BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
         when(bookingService.saveNewBooking(any(), any(), anyLong(), anyLong())).thenReturn(testDto);
 
         BookingOutcomeDto result = bookingController.saveNewBooking(1L, new BookingIncomeDto(1L, start, end, 1L));
@@ -91,8 +97,10 @@ class BookingControllerTest {
     @Test
     @DisplayName("Успешное обновление бронирования")
     void updateBookingTest() {
-        BookingOutcomeDto oldDto = new BookingOutcomeDto(1L, start, end, item1, booker, "WAITING");
-        BookingOutcomeDto updateDto = new BookingOutcomeDto(1L, start, end, item1, booker, "APPROVED");
+        BookingOutcomeDto oldDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker), "WAITING");
+        BookingOutcomeDto updateDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker), "APPROVED");
         when(bookingService.updateBooking(1L, 1L, true)).thenReturn(updateDto);
 
         BookingOutcomeDto result = bookingController.updateBooking(1L, 1L, true);
@@ -113,12 +121,11 @@ class BookingControllerTest {
     @Test
     @DisplayName("Получение списка бронирований пользователя")
     void getBookingsByUser() {
-        List<Booking> bookingList = List.of(booking1, booking2);
-        List<BookingOutcomeDto> dtoList = bookingList.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+        List<BookingOutcomeDto> dtoList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
         int from = 0;
         int size = 10;
         SearchStatus status;
-        when(bookingService.getBookingsByUser(anyLong(), any(), anyInt(), anyInt())).thenReturn(bookingList);
+        when(bookingService.getBookingsByUser(anyLong(), any(), anyInt(), anyInt())).thenReturn(dtoList);
 
         List<BookingOutcomeDto> result = bookingController.getBookingsByUser(1L, "ALL", from, size);
 
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.lease.LeaseService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryJobTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private BookingRepository mockBookingRepository;
+    @Mock
+    private BookingIntervalIndex mockIntervalIndex;
+    @Mock
+    private OwnerBookingCounters mockOwnerCounters;
+    @Mock
+    private LeaseService mockLeaseService;
+    @Mock
+    private ApplicationEventPublisher mockEvents;
+    @Mock
+    private TransactionTemplate mockTransactionTemplate;
+
+    private MeterRegistry meterRegistry;
+    private BookingExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new BookingExpiryJob(mockBookingRepository, mockIntervalIndex, mockOwnerCounters, mockLeaseService,
+                mockEvents, mockTransactionTemplate, meterRegistry, 2, Duration.ofMinutes(5));
+        lenient().when(mockTransactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Истекают все порции, метрики обновляются")
+    void expireStale() {
+        when(mockBookingRepository.findStaleWaiting(NOW, PageRequest.of(0, 2)))
+                .thenReturn(List.of(stale(1L, NOW.minusHours(3)), stale(2L, NOW.minusHours(2))))
+                .thenReturn(List.of(stale(3L, NOW.minusHours(1))));
+        when(mockBookingRepository.expireWaiting(anyList())).thenReturn(2).thenReturn(1);
+        when(mockLeaseService.tryAcquire(eq(BookingExpiryJob.LEASE_NAME), any())).thenReturn(true);
+
+        int result = job.expireStale(NOW);
+
+        assertEquals(3, result);
+        assertEquals(3.0, meterRegistry.counter("shareit.booking.expiry.processed").count());
+        assertEquals(3 * 3600.0, meterRegistry.get("shareit.booking.expiry.lag.seconds").gauge().value());
+        verify(mockIntervalIndex).remove(10L, 1L);
+        verify(mockIntervalIndex).remove(10L, 3L);
+        verify(mockOwnerCounters, times(3)).onStatusChange(20L, BookingStatus.WAITING, BookingStatus.EXPIRED);
+        verify(mockEvents, times(3)).publishEvent(any(BookingEvent.class));
+    }
+
+    @Test
+    @DisplayName("Без продления аренды обработка останавливается после порции")
+    void expireStale_leaseLost() {
+        when(mockBookingRepository.findStaleWaiting(NOW, PageRequest.of(0, 2)))
+                .thenReturn(List.of(stale(1L, NOW.minusHours(3)), stale(2L, NOW.minusHours(2))));
+        when(mockBookingRepository.expireWaiting(anyList())).thenReturn(1);
+        when(mockLeaseService.tryAcquire(eq(BookingExpiryJob.LEASE_NAME), any())).thenReturn(false);
+
+        int result = job.expireStale(NOW);
+
+        assertEquals(2, result);
+        verify(mockIntervalIndex, never()).remove(any(), any());
+        verify(mockIntervalIndex, times(2)).evict(10L);
+        verify(mockOwnerCounters, times(2)).evict(20L);
+        verifyNoInteractions(mockEvents);
+    }
+
+    @Test
+    @DisplayName("Узел без аренды не трогает бронирования")
+    void run_leaseTaken() {
+        when(mockLeaseService.tryAcquire(eq(BookingExpiryJob.LEASE_NAME), any())).thenReturn(false);
+
+        job.run();
+
+        verifyNoInteractions(mockBookingRepository);
+        verify(mockLeaseService, never()).release(any());
+    }
+
+    private StaleBookingView stale(Long id, LocalDateTime start) {
+        return new StaleBookingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return 10L;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return 20L;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+        };
+    }
+}
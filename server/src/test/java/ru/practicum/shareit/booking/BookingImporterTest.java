@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingImportErrorDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "shareit.booking-import.chunk-size=2")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:cleanup.sql"})
+@RecordApplicationEvents
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class BookingImporterTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final BookingImporter importer;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+    private long foreignItemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = insertUser("owner", "owner@mail.ru");
+        bookerId = insertUser("booker", "booker@mail.ru");
+        itemId = insertItem("Дрель", ownerId);
+        foreignItemId = insertItem("Пила", bookerId);
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, ?, ?, 'APPROVED')",
+                Timestamp.valueOf(NOW), Timestamp.valueOf(NOW.plusDays(1)), itemId, bookerId);
+    }
+
+    @Test
+    @DisplayName("Корректные строки импортируются порциями, ошибочные попадают в отчёт")
+    void importBookings() {
+        String lines = String.join("\n",
+                line(itemId, bookerId, NOW.plusDays(2), NOW.plusDays(3), "APPROVED"),
+                line(itemId, bookerId, NOW.plusDays(3), NOW.plusDays(4), null),
+                "",
+                "{not json",
+                "{\"itemId\":" + itemId + "}",
+                line(itemId, bookerId, NOW.plusDays(5), NOW.plusDays(4), null),
+                line(foreignItemId, ownerId, NOW.plusDays(2), NOW.plusDays(3), null),
+                line(itemId, 999L, NOW.plusDays(6), NOW.plusDays(7), null),
+                line(itemId, ownerId, NOW.plusDays(6), NOW.plusDays(7), null),
+                line(itemId, bookerId, NOW.plusHours(12), NOW.plusDays(2), "WAITING"),
+                line(itemId, bookerId, NOW.plusDays(3).plusHours(1), NOW.plusDays(5), "APPROVED"),
+                line(itemId, bookerId, NOW.plusHours(12), NOW.plusDays(2), "REJECTED"));
+
+        BookingImportResultDto result = importer.importBookings(ownerId,
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(12, result.getLines());
+        assertEquals(3, result.getImported());
+        assertEquals(8, result.getFailed());
+        assertEquals(List.of(
+                new BookingImportErrorDto(4, "Строка не является бронированием в формате JSON."),
+                new BookingImportErrorDto(5, "Для бронирования нужны itemId, bookerId, start и end."),
+                new BookingImportErrorDto(6, "Время начала бронирования не может быть позже окончания."),
+                new BookingImportErrorDto(7, "Вещь с ID=" + foreignItemId + " не найдена среди вещей пользователя."),
+                new BookingImportErrorDto(8, "Пользователь с ID=999 не найден."),
+                new BookingImportErrorDto(9, "Вещь не может быть забронирована её владельцем."),
+                new BookingImportErrorDto(10, "Вещь уже забронирована на это время."),
+                new BookingImportErrorDto(11, "Вещь уже забронирована на это время.")), result.getErrors());
+        assertEquals(List.of("APPROVED", "APPROVED", "WAITING", "REJECTED"), jdbcTemplate.queryForList(
+                "select status from bookings where item_id = ? order by id", String.class, itemId));
+    }
+
+    @Test
+    @DisplayName("Каждая зафиксированная порция сообщает число вставленных броней по вещам")
+    void importBookings_publishesChunkEvents(ApplicationEvents events) {
+        long secondItemId = insertItem("Лестница", ownerId);
+        String lines = String.join("\n",
+                line(itemId, bookerId, NOW.plusDays(2), NOW.plusDays(3), null),
+                line(secondItemId, bookerId, NOW.plusDays(2), NOW.plusDays(3), null),
+                line(itemId, bookerId, NOW.plusDays(4), NOW.plusDays(5), null),
+                line(itemId, bookerId, NOW.plusDays(4), NOW.plusDays(5), null));
+
+        importer.importBookings(ownerId, new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of(Map.of(itemId, 1, secondItemId, 1), Map.of(itemId, 1)),
+                events.stream(BookingImportEvent.class)
+                        .map(BookingImportEvent::getBookingsByItem)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("В отчёт попадает не больше max-errors ошибок, счётчик ошибок полный")
+    void importBookings_errorsAreCapped() {
+        String lines = "x\n".repeat(1500);
+
+        BookingImportResultDto result = importer.importBookings(ownerId,
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1500, result.getFailed());
+        assertEquals(1000, result.getErrors().size());
+    }
+
+    private String line(long item, long booker, LocalDateTime start, LocalDateTime end, String status) {
+        return "{\"itemId\":" + item + ",\"bookerId\":" + booker + ",\"start\":\"" + start + "\",\"end\":\"" + end +
+                "\"" + (status == null ? "" : ",\"status\":\"" + status + "\"") + "}";
+    }
+
+    private long insertUser(String name, String email) {
+        jdbcTemplate.update("insert into users (name, email) values (?, ?)", name, email);
+        return jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+    }
+
+    private long insertItem(String name, long owner) {
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) " +
+                "values (?, ?, 'AVAILABLE', ?)", name, name, owner);
+        return jdbcTemplate.queryForObject("select id from items where name = ?", Long.class, name);
+    }
+}
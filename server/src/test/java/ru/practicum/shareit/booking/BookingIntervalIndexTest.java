@@ -0,0 +1,201 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.Status;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(10);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private BookingIntervalIndex index;
+    @Mock
+    private BookingRepository mockBookingRepository;
+    @Mock
+    private ItemAdmission mockAdmission;
+
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        booker = new User(1L, "booker@mail.ru", "booker");
+        item = new Item(1L, "item1", "description1", Status.AVAILABLE, new User(2L, "owner@mail.ru", "owner"), null);
+        index = index(mockAdmission);
+    }
+
+    @Test
+    @DisplayName("Периоды вещи читаются из базы один раз")
+    void busy_loadsOnce() {
+        whenLoaded()
+                .thenReturn(List.of(period(1L, FROM.plusDays(1), FROM.plusDays(2))));
+
+        index.busy(1L, FROM, TO);
+        List<List<LocalDateTime>> result = busy(1L, FROM, TO);
+
+        assertEquals(List.of(List.of(FROM.plusDays(1), FROM.plusDays(2))), result);
+        assertTrue(index.isLoaded(1L));
+        verify(mockBookingRepository, times(1)).findActivePeriodsByItemIdBetween(eq(1L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Пересекающиеся периоды объединяются и обрезаются границами запроса")
+    void busy_mergesAndClips() {
+        whenLoaded().thenReturn(List.of(
+                period(1L, FROM.minusDays(5), FROM.plusDays(1)),
+                period(2L, FROM.plusDays(2), FROM.plusDays(6)),
+                period(3L, FROM.plusDays(3), FROM.plusDays(4)),
+                period(4L, FROM.plusDays(6), FROM.plusDays(7)),
+                period(5L, FROM.plusDays(9), FROM.plusDays(20)),
+                period(6L, TO, TO.plusDays(1))));
+
+        List<List<LocalDateTime>> result = busy(1L, FROM, TO);
+
+        assertEquals(List.of(
+                List.of(FROM, FROM.plusDays(1)),
+                List.of(FROM.plusDays(2), FROM.plusDays(7)),
+                List.of(FROM.plusDays(9), TO)), result);
+    }
+
+    @Test
+    @DisplayName("Длинная бронь в начале не теряется при поиске по поздним периодам")
+    void busy_longEarlyPeriod() {
+        whenLoaded().thenReturn(List.of(
+                period(1L, FROM.minusDays(30), TO),
+                period(2L, FROM.minusDays(20), FROM.minusDays(19))));
+
+        List<List<LocalDateTime>> result = busy(1L, FROM.plusDays(5), FROM.plusDays(6));
+
+        assertEquals(List.of(List.of(FROM.plusDays(5), FROM.plusDays(6))), result);
+    }
+
+    @Test
+    @DisplayName("Новая бронь добавляется к загруженной вещи, отменённая удаляется")
+    void addAndRemove() {
+        whenLoaded().thenReturn(List.of());
+        index.busy(1L, FROM, TO);
+
+        index.add(new Booking(7L, FROM.plusDays(1), FROM.plusDays(2), item, booker, BookingStatus.WAITING));
+        List<List<LocalDateTime>> added = busy(1L, FROM, TO);
+        index.remove(1L, 7L);
+        List<List<LocalDateTime>> removed = busy(1L, FROM, TO);
+
+        assertEquals(List.of(List.of(FROM.plusDays(1), FROM.plusDays(2))), added);
+        assertEquals(List.of(), removed);
+    }
+
+    @Test
+    @DisplayName("Бронь незагруженной вещи не читает базу")
+    void add_notLoaded() {
+        index.add(new Booking(7L, FROM.plusDays(1), FROM.plusDays(2), item, booker, BookingStatus.WAITING));
+
+        assertFalse(index.isLoaded(1L));
+        verifyNoInteractions(mockBookingRepository);
+    }
+
+    @Test
+    @DisplayName("Загружаются только незакончившиеся периоды, запрос из прошлого идёт в базу")
+    void busy_pastGoesToDatabase() {
+        LocalDateTime before = LocalDateTime.now();
+        whenLoaded().thenReturn(List.of());
+        index.busy(1L, FROM, TO);
+        LocalDateTime past = FROM.minusYears(10);
+        when(mockBookingRepository.findActivePeriodsByItemIdBetween(1L, past, past.plusDays(1)))
+                .thenReturn(List.of(period(1L, past, past.plusHours(1))));
+
+        List<List<LocalDateTime>> result = busy(1L, past, past.plusDays(1));
+
+        assertEquals(List.of(List.of(past, past.plusHours(1))), result);
+        verify(mockBookingRepository).findActivePeriodsByItemIdBetween(eq(1L),
+                argThat(from -> !from.isBefore(before)), eq(FAR_FUTURE));
+    }
+
+    @Test
+    @DisplayName("Изменение во время загрузки не даёт сохранить прочитанные периоды")
+    void busy_changeDuringLoad() {
+        whenLoaded().thenAnswer(invocation -> {
+            index.add(new Booking(7L, FROM.plusDays(1), FROM.plusDays(2), item, booker, BookingStatus.WAITING));
+            return List.of();
+        });
+
+        index.busy(1L, FROM, TO);
+
+        assertFalse(index.isLoaded(1L));
+    }
+
+    @Test
+    @DisplayName("В режиме advisory периоды не хранятся, каждый запрос идёт в базу")
+    void busy_advisoryReadsDatabase() {
+        index = index(mock(AdvisoryItemAdmission.class));
+        when(mockBookingRepository.findActivePeriodsByItemIdBetween(1L, FROM, TO))
+                .thenReturn(List.of(period(1L, FROM.plusDays(1), FROM.plusDays(2))));
+
+        busy(1L, FROM, TO);
+        List<List<LocalDateTime>> result = busy(1L, FROM, TO);
+
+        assertEquals(List.of(List.of(FROM.plusDays(1), FROM.plusDays(2))), result);
+        assertFalse(index.isLoaded(1L));
+        verify(mockBookingRepository, times(2)).findActivePeriodsByItemIdBetween(1L, FROM, TO);
+    }
+
+    private BookingIntervalIndex index(ItemAdmission admission) {
+        return new BookingIntervalIndex(mockBookingRepository, admission, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(1));
+    }
+
+    private OngoingStubbing<List<BookingPeriod>> whenLoaded() {
+        return when(mockBookingRepository.findActivePeriodsByItemIdBetween(eq(1L), any(), eq(FAR_FUTURE)));
+    }
+
+    private List<List<LocalDateTime>> busy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return index.busy(itemId, from, to).stream()
+                .map(p -> List.of(BookingIntervalIndex.fromMicros(p[0]), BookingIntervalIndex.fromMicros(p[1])))
+                .collect(Collectors.toList());
+    }
+
+    private BookingPeriod period(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
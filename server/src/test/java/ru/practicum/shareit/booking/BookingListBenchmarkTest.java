@@ -0,0 +1,242 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение списков бронирований и вещей: загрузка сущностей целиком против проекций.
+ * Запускается отдельно: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:cleanup.sql"})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class BookingListBenchmarkTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private long ownerId;
+    private long bookerId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ownerId = insertUser("owner", "owner@mail.ru");
+        bookerId = insertUser("booker", "booker@mail.ru");
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            requests.add(new Object[]{"Нужна дрель с набором бит и кейсом, номер " + i, bookerId,
+                    Timestamp.valueOf(NOW)});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (description, requestor_id, created_time) values (?, ?, ?)",
+                requests);
+        List<Long> requestIds = jdbcTemplate.queryForList("select id from requests order by id", Long.class);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"Дрель " + i, "Аккумуляторная дрель с набором бит и кейсом, номер " + i,
+                    "AVAILABLE", ownerId, requestIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into items (name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?)", items);
+        List<Object[]> bookings = new ArrayList<>();
+        for (Long itemId : jdbcTemplate.queryForList("select id from items", Long.class)) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = NOW.minusDays(i * 3L + 1).plusMinutes(itemId);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)),
+                        itemId, bookerId, "APPROVED"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?)", bookings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @DisplayName("Проекции читают меньше сущностей и отдают меньше JSON, чем загрузка графа сущностей")
+    void compareEntityGraphWithProjections() {
+        List<Result> results = List.of(
+                measure("GET /bookings, сущности", () -> legacyBookings("b.booker.id")),
+                measure("GET /bookings, проекция", () -> bookingRepository.search(BookingRole.BOOKER, bookerId,
+                        SearchStatus.ALL, NOW, null, PageRequest.of(0, PAGE_SIZE))),
+                measure("GET /bookings/owner, сущности", () -> legacyBookings("b.item.owner.id")),
+                measure("GET /bookings/owner, проекция", () -> bookingRepository.search(BookingRole.OWNER, ownerId,
+                        SearchStatus.ALL, NOW, null, PageRequest.of(0, PAGE_SIZE))),
+                measure("GET /items, сущности", () -> legacyOwnerItems().stream()
+                        .map(ItemMapper::toItemDto).collect(Collectors.toList())),
+                measure("GET /items, проекция", () -> itemRepository.findAllByUserIdPage(ownerId,
+                        PageRequest.of(0, PAGE_SIZE, Sort.by("id")))),
+                measure("GET /items/search, сущности", () -> legacySearch().stream()
+                        .map(ItemMapper::toItemDto).collect(Collectors.toList())),
+                measure("GET /items/search, проекция", () -> itemRepository.findAvailableOutcomesByIds(
+                        itemRepository.findAvailableIdsByText("дрель", PageRequest.of(0, PAGE_SIZE, Sort.by("id"))))));
+
+        log.info(String.format("%-32s %10s %10s %10s %10s %12s",
+                "сценарий", "мкс/запрос", "JSON, байт", "запросов", "сущностей", "аллокаций, Б"));
+        results.forEach(result -> log.info(result.toString()));
+        for (int i = 0; i < results.size(); i += 2) {
+            Result legacy = results.get(i);
+            Result projection = results.get(i + 1);
+            assertEquals(0, projection.entities, projection.name);
+            assertTrue(projection.jsonBytes <= legacy.jsonBytes, projection.name);
+            assertTrue(projection.statements <= legacy.statements, projection.name);
+        }
+    }
+
+    /**
+     * Список бронирований так, как он строился раньше: сущности и BookingOutcomeDto с вложенными сущностями
+     */
+    private List<Map<String, Object>> legacyBookings(String userPath) {
+        List<Booking> bookings = entityManager.createQuery("select b from Booking as b where " + userPath +
+                        " = :userId order by b.start desc, b.id desc", Booking.class)
+                .setParameter("userId", userPath.startsWith("b.booker") ? bookerId : ownerId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+        return bookings.stream().map(booking -> {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", booking.getId());
+            dto.put("start", booking.getStart());
+            dto.put("end", booking.getEnd());
+            dto.put("item", booking.getItem());
+            dto.put("booker", booking.getBooker());
+            dto.put("status", booking.getBookingStatus().name());
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    private List<Item> legacyOwnerItems() {
+        return entityManager.createQuery("select i from Item as i where i.owner.id = :userId order by i.id",
+                        Item.class)
+                .setParameter("userId", ownerId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private List<Item> legacySearch() {
+        return entityManager.createQuery("select i from Item as i " +
+                        "where (upper(i.name) like upper(concat('%', :text, '%')) " +
+                        " or upper(i.description) like upper(concat('%', :text, '%'))) " +
+                        "and i.available = ru.practicum.shareit.item.model.Status.AVAILABLE order by i.id",
+                        Item.class)
+                .setParameter("text", "дрель")
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private Result measure(String name, Supplier<List<?>> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            serialize(request);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        int jsonBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            jsonBytes = serialize(request);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        statistics.setStatisticsEnabled(false);
+        return new Result(name, elapsed / 1000 / ITERATIONS, jsonBytes,
+                statistics.getPrepareStatementCount() / ITERATIONS,
+                statistics.getEntityLoadCount() / ITERATIONS,
+                allocated / ITERATIONS);
+    }
+
+    /**
+     * Запрос и сериализация ответа в одной транзакции, как при открытом EntityManager на время запроса
+     */
+    private int serialize(Supplier<List<?>> request) {
+        return transaction.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(request.get()).length;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private long insertUser(String name, String email) {
+        jdbcTemplate.update("insert into users (name, email) values (?, ?)", name, email);
+        return jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+    }
+
+    @RequiredArgsConstructor
+    private static class Result {
+        private final String name;
+        private final long micros;
+        private final int jsonBytes;
+        private final long statements;
+        private final long entities;
+        private final long allocated;
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %10d %10d %10d %10d %12d",
+                    name, micros, jsonBytes, statements, entities, allocated);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.lease.LeaseService;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionMaintenanceTest {
+    private static final YearMonth CURRENT = YearMonth.of(2030, 1);
+
+    @Mock
+    private BookingPartitions mockPartitions;
+    @Mock
+    private LeaseService mockLeaseService;
+
+    private BookingPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        maintenance = new BookingPartitionMaintenance(mockPartitions, mockLeaseService,
+                new AdvisoryItemAdmission(null, null), 2, 12, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Секционирование не запускается с допуском к вещи в пределах одного узла")
+    void constructor_requiresAdvisoryAdmission() {
+        ItemAdmission striped = new StripedItemAdmission(null, 4);
+
+        assertThrows(IllegalStateException.class, () -> new BookingPartitionMaintenance(mockPartitions,
+                mockLeaseService, striped, 2, 12, Duration.ofMinutes(10)));
+    }
+
+    @Test
+    @DisplayName("Создаются только недостающие секции на months-ahead месяцев вперёд")
+    void maintain_createsMissingMonths() {
+        when(mockPartitions.findMonths()).thenReturn(Set.of(CURRENT, CURRENT.plusMonths(1)));
+
+        maintenance.maintain(CURRENT);
+
+        verify(mockPartitions).create(CURRENT.plusMonths(2));
+        verify(mockPartitions, never()).create(CURRENT);
+        verify(mockPartitions, never()).create(CURRENT.plusMonths(1));
+        verify(mockPartitions, never()).create(CURRENT.plusMonths(3));
+        verify(mockPartitions, never()).archive(any());
+    }
+
+    @Test
+    @DisplayName("В архив отключаются только секции старше archive-after-months")
+    void maintain_archivesOldMonths() {
+        YearMonth old = CURRENT.minusMonths(13);
+        YearMonth recent = CURRENT.minusMonths(12);
+        when(mockPartitions.findMonths()).thenReturn(Set.of(old, recent, CURRENT, CURRENT.plusMonths(1),
+                CURRENT.plusMonths(2)));
+
+        maintenance.maintain(CURRENT);
+
+        verify(mockPartitions).archive(old);
+        verify(mockPartitions, never()).archive(recent);
+        verify(mockPartitions, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Без аренды обслуживание не выполняется")
+    void run_withoutLease() {
+        when(mockLeaseService.tryAcquire(eq(BookingPartitionMaintenance.LEASE_NAME), any())).thenReturn(false);
+
+        maintenance.run();
+
+        verifyNoInteractions(mockPartitions);
+        verify(mockLeaseService, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("Имя секции строится по месяцу и разбирается обратно")
+    void partitionName() {
+        assertEquals("bookings_p2030_01", BookingPartitions.partitionName(CURRENT));
+        assertEquals(CURRENT, BookingPartitions.monthOf("bookings_p2030_01"));
+        assertNull(BookingPartitions.monthOf("bookings_default"));
+    }
+}
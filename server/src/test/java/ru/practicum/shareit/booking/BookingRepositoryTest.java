@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.SearchStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequest;
@@ -17,9 +22,14 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ActiveProfiles("test")
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -28,6 +38,8 @@ class BookingRepositoryTest {
     private final TestEntityManager entityManager;
     private final BookingRepository bookingRepository;
 
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
     private Pageable pageable = PageRequest.of(0, 10);
 
     private User booker;
@@ -102,107 +114,213 @@ class BookingRepositoryTest {
     }
 
     @Test
-    @DisplayName("по хозяину")
-    void findAllByOwnerId() {
-        entityManager.persist(owner);
-        entityManager.persist(booker);
-        entityManager.persist(request1);
-        entityManager.persist(request2);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-        entityManager.persist(booking1);
-        entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+    @DisplayName("Все бронирования по хозяину, при равном начале - по убыванию id")
+    void search_ownerAll() {
+        persistAll();
 
-        List<Booking> result = bookingRepository.findAllByOwnerId(owner.getId(), pageable).getContent();
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.OWNER, owner.getId(), SearchStatus.ALL, NOW,
+                null, pageable);
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking2, booking1), bookingIds(result));
     }
 
     @Test
-    @DisplayName("Список завершенных бронирований По хозяину")
-    void getBookingByOwnerIdAndEndBefore() {
-        booking1.setEnd(LocalDateTime.now().minusDays(1));
-        booking2.setEnd(LocalDateTime.now().minusHours(8));
-        entityManager.persist(owner);
-        entityManager.persist(booker);
-        entityManager.persist(request1);
-        entityManager.persist(request2);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-        entityManager.persist(booking1);
-        entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+    @DisplayName("Список завершенных бронирований по хозяину")
+    void search_ownerPast() {
+        booking1.setStart(NOW.minusDays(3));
+        booking1.setEnd(NOW.minusDays(2));
+        booking2.setStart(NOW.minusDays(2));
+        booking2.setEnd(NOW.minusHours(8));
+        persistAll();
+
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.OWNER, owner.getId(), SearchStatus.PAST, NOW,
+                null, pageable);
+
+        assertEquals(ids(booking2, booking1), bookingIds(result));
+    }
+
+    @Test
+    @DisplayName("Список текущих бронирований по хозяину")
+    void search_ownerCurrent() {
+        booking1.setStart(NOW.minusHours(8));
+        booking1.setEnd(NOW.plusDays(1));
+        booking2.setStart(NOW.minusDays(2));
+        booking2.setEnd(NOW.minusHours(1));
+        persistAll();
 
-        List<Booking> result = bookingRepository.getBookingByOwnerIdAndEndBefore(owner.getId(), LocalDateTime.now());
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.OWNER, owner.getId(), SearchStatus.CURRENT, NOW,
+                null, pageable);
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking1), bookingIds(result));
     }
 
     @Test
-    @DisplayName("Список будущих бронирований по хозяину")
-    void getBookingByOwnerIdAndStartAfter() {
-        booking1.setStart(LocalDateTime.now().plusHours(12));
-        booking2.setStart(LocalDateTime.now().plusHours(10));
-        entityManager.persist(owner);
-        entityManager.persist(booker);
-        entityManager.persist(request1);
-        entityManager.persist(request2);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-        entityManager.persist(booking1);
-        entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+    @DisplayName("Список будущих бронирований по bookerId")
+    void search_bookerFuture() {
+        booking1.setStart(NOW.plusHours(12));
+        booking2.setStart(NOW.plusHours(10));
+        persistAll();
 
-        List<Booking> result = bookingRepository.getBookingByOwnerIdAndStartAfter(owner.getId(), LocalDateTime.now());
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.BOOKER, booker.getId(), SearchStatus.FUTURE, NOW,
+                null, pageable);
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking1, booking2), bookingIds(result));
     }
 
     @Test
-    @DisplayName("Список текущих бронирований по хозяину")
-    void getBookingByOwnerIdAndStartIsBeforeAndEndAfter() {
-        booking1.setStart(LocalDateTime.now().minusHours(8));
-        booking2.setStart(LocalDateTime.now().minusHours(10));
-        booking1.setEnd(LocalDateTime.now().plusDays(1));
-        booking2.setEnd(LocalDateTime.now().plusDays(3));
-        entityManager.persist(owner);
-        entityManager.persist(booker);
-        entityManager.persist(request1);
-        entityManager.persist(request2);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-        entityManager.persist(booking1);
-        entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+    @DisplayName("Список бронирований по bookerId и статусу")
+    void search_bookerByStatus() {
+        booking2.setBookingStatus(BookingStatus.REJECTED);
+        persistAll();
 
-        List<Booking> result = bookingRepository.getBookingByOwnerIdAndStartIsBeforeAndEndAfter(owner.getId(), LocalDateTime.now());
+        List<BookingOutcomeDto> waiting = bookingRepository.search(BookingRole.BOOKER, booker.getId(), SearchStatus.WAITING,
+                NOW, null, pageable);
+        List<BookingOutcomeDto> rejected = bookingRepository.search(BookingRole.BOOKER, booker.getId(), SearchStatus.REJECTED,
+                NOW, null, pageable);
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking1), bookingIds(waiting));
+        assertEquals(ids(booking2), bookingIds(rejected));
     }
 
     @Test
-    @DisplayName("По хозяину и статусу")
-    void getBookingByOwner_IdAndStatus() {
-        entityManager.persist(owner);
-        entityManager.persist(booker);
-        entityManager.persist(request1);
-        entityManager.persist(request2);
-        entityManager.persist(item1);
-        entityManager.persist(item2);
-        entityManager.persist(booking1);
-        entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+    @DisplayName("Бронирования другого пользователя не попадают в выборку")
+    void search_otherUser() {
+        persistAll();
+
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.OWNER, booker.getId(), SearchStatus.ALL, NOW,
+                null, pageable);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Страница бронирований по bookerId после курсора")
+    void search_bookerAfterCursor() {
+        booking1.setStart(NOW);
+        booking2.setStart(NOW.minusMinutes(30));
+        persistAll();
+
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.BOOKER, booker.getId(), SearchStatus.ALL, NOW,
+                BookingCursor.of(booking1), pageable);
+
+        assertEquals(ids(booking2), bookingIds(result));
+    }
+
+    @Test
+    @DisplayName("Страница бронирований по хозяину после курсора с одинаковым началом")
+    void search_ownerAfterCursorWithSameStart() {
+        booking1.setStart(NOW);
+        booking2.setStart(NOW);
+        persistAll();
+
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.OWNER, owner.getId(), SearchStatus.ALL, NOW,
+                BookingCursor.of(booking2), pageable);
+
+        assertEquals(ids(booking1), bookingIds(result));
+    }
+
+    @Test
+    @DisplayName("Из базы читается не больше строк, чем размер страницы")
+    void search_fetchesOnlyPage() {
+        persistAll();
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(Booking.builder()
+                    .start(NOW.minusDays(i + 1))
+                    .end(NOW.minusDays(i + 1).plusHours(1))
+                    .item(item1)
+                    .booker(booker)
+                    .bookingStatus(BookingStatus.APPROVED)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingOutcomeDto> result = bookingRepository.search(BookingRole.BOOKER, booker.getId(), SearchStatus.PAST, NOW,
+                null, PageRequest.of(1, 2));
+
+        long fetchedRows = Arrays.stream(statistics.getQueries())
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount())
+                .sum();
+        statistics.setStatisticsEnabled(false);
+        assertEquals(2, result.size());
+        assertEquals(NOW.minusDays(3), result.get(0).getStart());
+        assertEquals(NOW.minusDays(4), result.get(1).getStart());
+        assertEquals(2, fetchedRows);
+    }
+
+    @Test
+    @DisplayName("Завершённое бронирование вещи пользователем")
+    void existsFinishedBooking() {
+        booking1.setStart(NOW.minusDays(2));
+        booking1.setEnd(NOW.minusDays(1));
+        booking2.setStart(NOW.minusDays(1));
+        booking2.setEnd(NOW.plusDays(1));
+        persistAll();
+
+        assertTrue(bookingRepository.existsFinishedBooking(booker.getId(), item1.getId(), NOW));
+        assertFalse(bookingRepository.existsFinishedBooking(booker.getId(), item2.getId(), NOW));
+        assertFalse(bookingRepository.existsFinishedBooking(owner.getId(), item1.getId(), NOW));
+    }
+
+    @Test
+    @DisplayName("Просроченные ожидающие бронирования переводятся в EXPIRED")
+    void findStaleWaitingAndExpire() {
+        booking1.setStart(NOW.minusHours(2));
+        booking2.setStart(NOW.minusHours(1));
+        booking2.setBookingStatus(BookingStatus.APPROVED);
+        persistAll();
+
+        List<StaleBookingView> stale = bookingRepository.findStaleWaiting(NOW, pageable);
+        int updated = bookingRepository.expireWaiting(List.of(booking1.getId(), booking2.getId()));
+
+        assertEquals(1, stale.size());
+        assertEquals(booking1.getId(), stale.get(0).getId());
+        assertEquals(item1.getId(), stale.get(0).getItemId());
+        assertEquals(1, updated);
+        assertEquals(BookingStatus.EXPIRED, entityManager.find(Booking.class, booking1.getId()).getBookingStatus());
+        assertEquals(BookingStatus.APPROVED, entityManager.find(Booking.class, booking2.getId()).getBookingStatus());
+    }
+
+    @Test
+    @DisplayName("Число бронирований владельца по периодам одним запросом")
+    void countByOwnerId() {
+        booking1.setStart(NOW.minusDays(2));
+        booking1.setEnd(NOW.minusDays(1));
+        booking2.setStart(NOW.minusHours(1));
+        booking2.setEnd(NOW.plusHours(1));
+        persistAll();
+
+        BookingTimeCounts counts = bookingRepository.countByOwnerId(owner.getId(), NOW);
+        BookingTimeCounts empty = bookingRepository.countByOwnerId(booker.getId(), NOW);
+
+        assertEquals(List.of(2L, 1L, 1L, 0L),
+                List.of(counts.getTotal(), counts.getCurrent(), counts.getPast(), counts.getFuture()));
+        assertEquals(List.of(0L, 0L, 0L, 0L),
+                List.of(empty.getTotal(), empty.getCurrent(), empty.getPast(), empty.getFuture()));
+    }
+
+    @Test
+    @DisplayName("Число ожидающих и отклонённых бронирований владельца одним запросом")
+    void countStatusesByOwnerId() {
+        booking2.setBookingStatus(BookingStatus.REJECTED);
+        persistAll();
 
-        List<Booking> result = bookingRepository.getBookingByOwner_IdAndStatus(owner.getId(), BookingStatus.WAITING);
+        BookingStatusCounts counts = bookingRepository.countStatusesByOwnerId(owner.getId());
+        BookingStatusCounts empty = bookingRepository.countStatusesByOwnerId(booker.getId());
 
-        assertEquals(bookingList, result);
+        assertEquals(List.of(1L, 1L), List.of(counts.getWaiting(), counts.getRejected()));
+        assertEquals(List.of(0L, 0L), List.of(empty.getWaiting(), empty.getRejected()));
     }
 
     @Test
-    @DisplayName("Список бронирований по itemId")
-    void findAllByItemId() {
+    @DisplayName("Пересечение с активным бронированием вещи")
+    void existsOverlapping() {
         booking2.setItem(item1);
+        booking2.setBookingStatus(BookingStatus.REJECTED);
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -211,18 +329,18 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
-
-        List<Booking> result = bookingRepository.findAllByItemId(item1.getId());
 
-        assertEquals(bookingList, result);
+        assertTrue(bookingRepository.existsOverlapping(item1.getId(), start.minusHours(1), start.plusHours(1)));
+        assertFalse(bookingRepository.existsOverlapping(item1.getId(), end.plusSeconds(1), end.plusDays(1)));
+        assertFalse(bookingRepository.existsOverlapping(item2.getId(), start, end));
     }
 
     @Test
-    @DisplayName("Список завершенных бронирований по bookerId")
-    void getBookingForBookerAndEndBefore() {
-        booking1.setEnd(LocalDateTime.now().minusDays(1));
-        booking2.setEnd(LocalDateTime.now().minusHours(8));
+    @DisplayName("Последнее бронирование вещи")
+    void findFirstByItem_IdAndStartBeforeOrderByStartDesc() {
+        booking1.setStart(LocalDateTime.now().minusDays(3));
+        booking2.setItem(item1);
+        booking2.setStart(LocalDateTime.now().minusDays(1));
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -231,20 +349,19 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
 
-        List<Booking> result = bookingRepository.getBookingForBookerAndEndBefore(booker.getId(), LocalDateTime.now());
+        Optional<Booking> result = bookingRepository.findFirstByItem_IdAndStartBeforeOrderByStartDesc(
+                item1.getId(), LocalDateTime.now());
 
-        assertEquals(bookingList, result);
+        assertEquals(Optional.of(booking2), result);
     }
 
     @Test
-    @DisplayName("Список текущих бронирований по bookerId")
-    void getBookingForBookerAndStartIsBeforeAndEndAfter() {
-        booking1.setStart(LocalDateTime.now().minusHours(8));
-        booking2.setStart(LocalDateTime.now().minusHours(10));
-        booking1.setEnd(LocalDateTime.now().plusDays(1));
-        booking2.setEnd(LocalDateTime.now().plusDays(3));
+    @DisplayName("Ближайшее бронирование вещи без отменённых")
+    void findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc() {
+        booking1.setBookingStatus(BookingStatus.CANCELED);
+        booking2.setItem(item1);
+        booking2.setStart(start.plusHours(1));
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -253,18 +370,25 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
 
-        List<Booking> result = bookingRepository.getBookingForBookerAndStartIsBeforeAndEndAfter(booker.getId(), LocalDateTime.now());
+        Optional<Booking> result = bookingRepository.findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc(
+                item1.getId(), LocalDateTime.now(), List.of(BookingStatus.REJECTED, BookingStatus.CANCELED));
 
-        assertEquals(bookingList, result);
+        assertEquals(Optional.of(booking2), result);
     }
 
     @Test
-    @DisplayName("Список будущих бронирований по bookerId")
-    void getBookingForBookerIdAndStartAfter() {
-        booking1.setStart(LocalDateTime.now().plusHours(12));
-        booking2.setStart(LocalDateTime.now().plusHours(10));
+    @DisplayName("Последние бронирования по списку вещей")
+    void findLastBookingsByItemIds() {
+        Booking booking3 = Booking.builder()
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(4))
+                .item(item1)
+                .booker(booker)
+                .bookingStatus(BookingStatus.APPROVED)
+                .build();
+        booking1.setStart(LocalDateTime.now().minusDays(2));
+        booking1.setEnd(LocalDateTime.now().minusDays(1));
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -273,16 +397,24 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+        entityManager.persist(booking3);
 
-        List<Booking> result = bookingRepository.getBookingForBookerIdAndStartAfter(booker.getId(), LocalDateTime.now());
+        List<ItemBookingView> result = bookingRepository.findLastBookingsByItemIds(
+                List.of(item1.getId(), item2.getId()), LocalDateTime.now());
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking1), result.stream().map(ItemBookingView::getId).collect(Collectors.toList()));
     }
 
     @Test
-    @DisplayName("Список бронирований по bookerId")
-    void findAllByBookerId() {
+    @DisplayName("Ближайшие бронирования по списку вещей без отклонённых")
+    void findNextBookingsByItemIds() {
+        Booking booking3 = Booking.builder()
+                .start(LocalDateTime.now().plusMinutes(10))
+                .end(LocalDateTime.now().plusDays(1))
+                .item(item1)
+                .booker(booker)
+                .bookingStatus(BookingStatus.REJECTED)
+                .build();
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -291,16 +423,24 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
+        entityManager.persist(booking3);
 
-        List<Booking> result = bookingRepository.findAllByBookerId(booker.getId(), pageable).getContent();
+        List<ItemBookingView> result = bookingRepository.findNextBookingsByItemIds(
+                List.of(item1.getId(), item2.getId()), LocalDateTime.now());
 
-        assertEquals(bookingList, result);
+        assertEquals(ids(booking1, booking2),
+                result.stream().map(ItemBookingView::getId).collect(Collectors.toList()));
     }
 
-    @Test
-    @DisplayName("Список бронирований по bookerId и статусу")
-    void getBookingForBookerAndStatus() {
+    private List<Long> ids(Booking... bookings) {
+        return Arrays.stream(bookings).map(Booking::getId).collect(Collectors.toList());
+    }
+
+    private List<Long> bookingIds(List<BookingOutcomeDto> bookings) {
+        return bookings.stream().map(BookingOutcomeDto::getId).collect(Collectors.toList());
+    }
+
+    private void persistAll() {
         entityManager.persist(owner);
         entityManager.persist(booker);
         entityManager.persist(request1);
@@ -309,10 +449,5 @@ class BookingRepositoryTest {
         entityManager.persist(item2);
         entityManager.persist(booking1);
         entityManager.persist(booking2);
-        List<Booking> bookingList = List.of(booking1, booking2);
-
-        List<Booking> result = bookingRepository.getBookingForBookerAndStatus(booker.getId(), BookingStatus.WAITING);
-
-        assertEquals(bookingList, result);
     }
-}
\ No newline at end of file
+}
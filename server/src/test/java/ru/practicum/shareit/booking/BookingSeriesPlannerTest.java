@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.booking.dto.SeriesFrequency;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingSeriesPlannerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final BookingSeriesPlanner planner = new BookingSeriesPlanner(10);
+
+    @Test
+    @DisplayName("Еженедельная серия из count бронирований")
+    void expand_weeklyCount() {
+        List<PeriodDto> actual = planner.expand(new BookingSeriesDto(1L, START, START.plusDays(1),
+                SeriesFrequency.WEEKLY, null, 3, null));
+
+        assertEquals(List.of(
+                new PeriodDto(START, START.plusDays(1)),
+                new PeriodDto(START.plusWeeks(1), START.plusWeeks(1).plusDays(1)),
+                new PeriodDto(START.plusWeeks(2), START.plusWeeks(2).plusDays(1))), actual);
+    }
+
+    @Test
+    @DisplayName("Серия через день до until включительно")
+    void expand_dailyUntil() {
+        List<PeriodDto> actual = planner.expand(new BookingSeriesDto(1L, START, START.plusHours(2),
+                SeriesFrequency.DAILY, 2, null, START.plusDays(4)));
+
+        assertEquals(List.of(
+                new PeriodDto(START, START.plusHours(2)),
+                new PeriodDto(START.plusDays(2), START.plusDays(2).plusHours(2)),
+                new PeriodDto(START.plusDays(4), START.plusDays(4).plusHours(2))), actual);
+    }
+
+    @Test
+    @DisplayName("Нужно ровно одно из count и until")
+    void expand_countOrUntil() {
+        final ValidationException exception = Assertions.assertThrows(ValidationException.class,
+                () -> planner.expand(new BookingSeriesDto(1L, START, START.plusHours(2),
+                        SeriesFrequency.DAILY, null, 2, START.plusDays(3))));
+
+        assertEquals("Для серии нужно указать либо count, либо until.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Серия длиннее max-occurrences отклоняется")
+    void expand_tooManyOccurrences() {
+        final ValidationException exception = Assertions.assertThrows(ValidationException.class,
+                () -> planner.expand(new BookingSeriesDto(1L, START, START.plusHours(2),
+                        SeriesFrequency.DAILY, null, null, START.plusDays(10))));
+
+        assertEquals("В серии не может быть больше 10 бронирований.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Бронирование длиннее шага серии отклоняется")
+    void expand_overlappingOccurrences() {
+        final ValidationException exception = Assertions.assertThrows(ValidationException.class,
+                () -> planner.expand(new BookingSeriesDto(1L, START, START.plusDays(2),
+                        SeriesFrequency.DAILY, 1, 3, null)));
+
+        assertEquals("Бронирования серии не должны пересекаться между собой.", exception.getMessage());
+    }
+}
@@ -5,11 +5,18 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingIncomeDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.DecisionOutcome;
 import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.booking.dto.SeriesFrequency;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemRepository;
@@ -20,8 +27,23 @@ import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -29,7 +51,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureTestDatabase
 @ActiveProfiles("test")
-@Sql(scripts = {"file:src/main/resources/schema.sql"})
+@Sql(scripts = {"classpath:cleanup.sql"})
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 class BookingServiceImplIntegrationTest {
     private final BookingServiceImpl bookingService;
@@ -37,6 +59,10 @@ class BookingServiceImplIntegrationTest {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final OwnerBookingStream ownerStream;
+
+    @LocalServerPort
+    private int port;
 
     private User booker;
     private User owner;
@@ -161,6 +187,22 @@ class BookingServiceImplIntegrationTest {
         assertEquals("Вещь уже забронирована.", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Пересекающееся бронирование отклоняется")
+    void saveNewBooking_whenPeriodOverlaps() {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRepository.save(item1);
+        bookingService.saveNewBooking(start, end, item1.getId(), booker.getId());
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.saveNewBooking(start.plusDays(1), end.plusDays(1), item1.getId(), booker.getId()));
+
+        assertEquals("Вещь уже забронирована на это время.", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Время неверное")
     void saveNewBooking_whenStartAfterEnd() {
@@ -192,6 +234,131 @@ class BookingServiceImplIntegrationTest {
         assertThat(actual).usingRecursiveComparison().ignoringFields("start", "end").isEqualTo(expected);
     }
 
+    @Test
+    @DisplayName("Из параллельных подтверждений одного бронирования проходит ровно одно")
+    void updateBooking_concurrentApprovals() throws Exception {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRepository.save(item1);
+        bookingRepository.save(booking1);
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        Callable<Boolean> approve = () -> {
+            ready.countDown();
+            go.await();
+            try {
+                bookingService.updateBooking(booking1.getId(), owner.getId(), true);
+                return true;
+            } catch (ValidationException e) {
+                return false;
+            }
+        };
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(approve));
+        }
+        ready.await();
+        go.countDown();
+
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                approved++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, approved);
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking1.getId()).get().getBookingStatus());
+    }
+
+    @Test
+    @DisplayName("Серия бронирований создаётся одним запросом")
+    void saveBookingSeries() {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRepository.save(item1);
+
+        List<BookingOutcomeDto> actual = bookingService.saveBookingSeries(booker.getId(),
+                new BookingSeriesDto(item1.getId(), start, start.plusHours(2), SeriesFrequency.WEEKLY, 1, 4, null));
+
+        assertEquals(4, actual.size());
+        assertEquals(start.plusWeeks(3).truncatedTo(ChronoUnit.MICROS), actual.get(3).getStart());
+        assertThat(actual).allMatch(booking -> booking.getStatus().equals("WAITING"));
+        assertEquals(actual.get(2), bookingService.getBookingById(booker.getId(), actual.get(2).getId()));
+    }
+
+    @Test
+    @DisplayName("Серия с пересечением не создаёт ни одного бронирования")
+    void saveBookingSeries_whenOccurrenceOverlaps() {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRepository.save(item1);
+        bookingService.saveNewBooking(start.plusDays(2), start.plusDays(2).plusHours(1), item1.getId(),
+                booker.getId());
+
+        final ValidationException exception = Assertions.assertThrows(ValidationException.class,
+                () -> bookingService.saveBookingSeries(booker.getId(), new BookingSeriesDto(item1.getId(), start,
+                        start.plusHours(2), SeriesFrequency.DAILY, 1, 5, null)));
+
+        assertEquals("Вещь уже забронирована на это время: " + start.plusDays(2).truncatedTo(ChronoUnit.MICROS),
+                exception.getMessage());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    @DisplayName("Решение владельца по нескольким бронированиям")
+    void decideBookings() {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRequestRepository.save(request2);
+        itemRepository.save(item1);
+        itemRepository.save(item2);
+        bookingRepository.save(booking1);
+        bookingRepository.save(booking2);
+
+        List<BookingDecisionResultDto> actual = bookingService.decideBookings(owner.getId(), List.of(
+                new BookingDecisionDto(booking1.getId(), true),
+                new BookingDecisionDto(booking2.getId(), false),
+                new BookingDecisionDto(booking2.getId() + 100, true)));
+
+        assertEquals(List.of(
+                new BookingDecisionResultDto(booking1.getId(), DecisionOutcome.APPROVED),
+                new BookingDecisionResultDto(booking2.getId(), DecisionOutcome.REJECTED),
+                new BookingDecisionResultDto(booking2.getId() + 100, DecisionOutcome.NOT_FOUND)), actual);
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking1.getId()).get().getBookingStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(booking2.getId()).get().getBookingStatus());
+    }
+
+    @Test
+    @DisplayName("Решение по чужому или уже рассмотренному бронированию не применяется")
+    void decideBookings_notOwnerAndNotWaiting() {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRequestRepository.save(request2);
+        itemRepository.save(item1);
+        itemRepository.save(item2);
+        booking2.setBookingStatus(BookingStatus.CANCELED);
+        bookingRepository.save(booking1);
+        bookingRepository.save(booking2);
+
+        List<BookingDecisionResultDto> byBooker = bookingService.decideBookings(booker.getId(),
+                List.of(new BookingDecisionDto(booking1.getId(), true)));
+        List<BookingDecisionResultDto> byOwner = bookingService.decideBookings(owner.getId(),
+                List.of(new BookingDecisionDto(booking2.getId(), true)));
+
+        assertEquals(List.of(new BookingDecisionResultDto(booking1.getId(), DecisionOutcome.NOT_OWNER)), byBooker);
+        assertEquals(List.of(new BookingDecisionResultDto(booking2.getId(), DecisionOutcome.NOT_WAITING)), byOwner);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(booking1.getId()).get().getBookingStatus());
+    }
+
     @Test
     @DisplayName("Бронирование по пользователю")
     void getBookingsByUser() {
@@ -201,9 +368,10 @@ class BookingServiceImplIntegrationTest {
         itemRepository.save(item1);
         bookingRepository.save(booking1);
 
-        List<Booking> actual = bookingService.getBookingsByUser(booker.getId(), SearchStatus.WAITING, 0, 10);
+        List<BookingOutcomeDto> actual = bookingService.getBookingsByUser(booker.getId(), SearchStatus.WAITING, 0, 10);
 
-        assertThat(actual).usingRecursiveComparison().ignoringFields("start", "end", "item.request.createdTime").isEqualTo(List.of(booking1));
+        assertThat(actual).usingRecursiveComparison().ignoringFields("start", "end")
+                .isEqualTo(List.of(BookingMapper.toBookingDto(booking1)));
     }
 
     @Test
@@ -219,7 +387,37 @@ class BookingServiceImplIntegrationTest {
 
         BookingOutcomeDto expected = bookingService.getBookingById(booker.getId(), booking1.getId());
 
-        assertThat(List.of(expected)).usingRecursiveComparison().ignoringFields("start", "end", "item.request.createdTime")
+        assertThat(List.of(expected)).usingRecursiveComparison().ignoringFields("start", "end")
                 .isEqualTo(actual);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Владелец получает событие о новом бронировании через поток")
+    void streamOwnerBookings_receivesNewBooking() throws Exception {
+        userRepository.save(booker);
+        userRepository.save(owner);
+        itemRequestRepository.save(request1);
+        itemRepository.save(item1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner/stream"))
+                .header("X-Sharer-User-Id", owner.getId().toString())
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        CompletableFuture<String> data = CompletableFuture.supplyAsync(() -> response.body()
+                .filter(line -> line.startsWith("data:"))
+                .findFirst()
+                .orElse(null));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (ownerStream.subscriberCount(owner.getId()) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        BookingOutcomeDto saved = bookingService.saveNewBooking(start, end, item1.getId(), booker.getId());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("data:{\"bookingId\":" + saved.getId() + ",\"itemId\":" + item1.getId() +
+                ",\"status\":\"WAITING\"}", data.get(5, TimeUnit.SECONDS));
+        response.body().close();
+    }
+}
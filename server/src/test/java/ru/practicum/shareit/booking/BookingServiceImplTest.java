@@ -1,17 +1,35 @@
 package ru.practicum.shareit.booking;
 
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingImportResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingIncomeDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.DecisionOutcome;
+import ru.practicum.shareit.booking.dto.PeriodDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.SearchStatus;
+import ru.practicum.shareit.booking.dto.SeriesFrequency;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
@@ -22,13 +40,29 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +75,22 @@ class BookingServiceImplTest {
     private ItemService mockItemService;
     @Mock
     private BookingRepository mockBookingRepository;
+    @Mock
+    private BookingIntervalIndex mockIntervalIndex;
+    @Mock
+    private OwnerBookingCounters mockOwnerCounters;
+    @Mock
+    private OwnerBookingStream mockOwnerStream;
+    @Mock
+    private ApplicationEventPublisher mockEvents;
+    @Mock
+    private ItemAdmission mockAdmission;
+    @Mock
+    private BookingImporter mockImporter;
+    @Mock
+    private BookingSeriesPlanner mockSeriesPlanner;
+    @Mock
+    private BookingBatchRepository mockBatchRepository;
 
     private User booker;
     private User owner;
@@ -75,15 +125,22 @@ class BookingServiceImplTest {
         booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
         booking2 = new Booking(2L, start, end, item2, booker, BookingStatus.WAITING);
         bookingIncomeDto = new BookingIncomeDto(1L, start, end, 1L);
-        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end, item1, booker, booking1.getBookingStatus().name());
-        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end, item2, booker, booking2.getBookingStatus().name());
+        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
+        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end,
+                BookingMapper.toBookingItemDto(item2), BookingMapper.toBookerDto(booker),
+                booking2.getBookingStatus().name());
+        lenient().doAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get())
+                .when(mockAdmission).admit(any(), any());
     }
 
     @Test
     @DisplayName("Сохраняет бронирование успешно")
     void saveNewBookingTest_isSuccess() {
         BookingOutcomeDto bookingDto = new BookingOutcomeDto(
-                1L, start, end, item1, booker, BookingStatus.WAITING.name()
+                1L, start, end, BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                BookingStatus.WAITING.name()
         );
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
         when(mockItemService.getItemById(anyLong(), anyLong())).thenReturn(item1);
@@ -92,6 +149,11 @@ class BookingServiceImplTest {
         BookingOutcomeDto actual = bookingService.saveNewBooking(start, end, item1.getId(), bookerDto.getId());
 
         assertEquals(bookingDto, actual);
+        ArgumentCaptor<BookingEvent> event = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(mockEvents).publishEvent(event.capture());
+        assertEquals(booking1.getId(), event.getValue().getBookingId());
+        assertEquals(owner.getId(), event.getValue().getOwnerId());
+        assertEquals(BookingStatus.WAITING, event.getValue().getStatus());
     }
 
     @Test
@@ -121,6 +183,49 @@ class BookingServiceImplTest {
     }
 
 
+    @Test
+    @DisplayName("Бронирование пересекается с существующим")
+    void saveNewBookingTest_Overlapping() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
+        when(mockItemService.getItemById(anyLong(), anyLong())).thenReturn(item1);
+        when(mockBookingRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(true);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.saveNewBooking(start, end, item1.getId(), bookerDto.getId()));
+
+        assertEquals("Вещь уже забронирована на это время.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Пересечение, отклонённое ограничением исключения базы")
+    void saveNewBookingTest_exclusionViolation() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
+        when(mockItemService.getItemById(anyLong(), anyLong())).thenReturn(item1);
+        doThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .when(mockAdmission).admit(any(), any());
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.saveNewBooking(start, end, item1.getId(), bookerDto.getId()));
+
+        assertEquals("Вещь уже забронирована на это время.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Прочие нарушения целостности не выдаются за пересечение")
+    void saveNewBookingTest_otherIntegrityViolation() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
+        when(mockItemService.getItemById(anyLong(), anyLong())).thenReturn(item1);
+        doThrow(new DataIntegrityViolationException("fk",
+                new SQLException("violates foreign key constraint", "23503")))
+                .when(mockAdmission).admit(any(), any());
+
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.saveNewBooking(start, end, item1.getId(), bookerDto.getId()));
+    }
+
     @Test
     @DisplayName("Бронирование с некорректными датами")
     void saveNewBookingTest_StartIsAfterEnd() {
@@ -155,15 +260,103 @@ class BookingServiceImplTest {
     @DisplayName("Успешное обновление брони")
     void updateBookingTest_isSuccess() {
         Booking oldBooking = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
-        Booking bookingUpdate = new Booking(1L, start.plusHours(2), end.plusHours(2), item1, booker, BookingStatus.WAITING);
+        Booking bookingUpdate = new Booking(1L, start, end, item1, booker, BookingStatus.APPROVED);
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
         when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
-        when(mockItemService.getItems(anyLong())).thenReturn(List.of(oldBooking.getItem()));
-        when(mockBookingRepository.save(any())).thenReturn(bookingUpdate);
+        when(mockBookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
 
         BookingOutcomeDto actual = bookingService.updateBooking(oldBooking.getId(), owner.getId(), true);
 
         assertEquals(BookingMapper.toBookingDto(bookingUpdate), actual);
+        verify(mockBookingRepository, never()).save(any());
+        verifyNoInteractions(mockItemService);
+    }
+
+    @Test
+    @DisplayName("Индекс периодов и счётчики владельца меняются только после фиксации транзакции")
+    void updateBooking_cachesUpdatedAfterCommit() {
+        Booking oldBooking = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
+        when(mockUserService.getUserById(anyLong())).thenReturn(ownerDto);
+        when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(mockBookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.updateBooking(oldBooking.getId(), owner.getId(), false);
+
+            verifyNoInteractions(mockIntervalIndex, mockOwnerCounters);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(mockIntervalIndex).remove(item1.getId(), 1L);
+        verify(mockOwnerCounters).onStatusChange(owner.getId(), BookingStatus.WAITING, BookingStatus.REJECTED);
+    }
+
+    @Test
+    @DisplayName("При откате транзакции индекс периодов и счётчики владельца не меняются")
+    void updateBooking_cachesUntouchedOnRollback() {
+        Booking oldBooking = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
+        when(mockUserService.getUserById(anyLong())).thenReturn(ownerDto);
+        when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(mockBookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.updateBooking(oldBooking.getId(), owner.getId(), false);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(mockIntervalIndex, mockOwnerCounters);
+    }
+
+    @Test
+    @DisplayName("Бронирования серии попадают в индекс периодов только после фиксации транзакции")
+    void saveBookingSeries_indexUpdatedAfterCommit() {
+        BookingSeriesDto series = new BookingSeriesDto(item1.getId(), start, end, SeriesFrequency.WEEKLY, 1, 2, null);
+        List<PeriodDto> occurrences = List.of(new PeriodDto(start, end),
+                new PeriodDto(start.plusWeeks(1), end.plusWeeks(1)));
+        when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
+        when(mockItemService.getItemById(booker.getId(), item1.getId())).thenReturn(item1);
+        when(mockSeriesPlanner.expand(series)).thenReturn(occurrences);
+        when(mockBookingRepository.findWaitingByStarts(eq(item1.getId()), eq(booker.getId()), any()))
+                .thenReturn(List.of(period(10L, start, end), period(11L, start.plusWeeks(1), end.plusWeeks(1))));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<BookingOutcomeDto> result = bookingService.saveBookingSeries(booker.getId(), series);
+
+            assertEquals(2, result.size());
+            verifyNoInteractions(mockIntervalIndex, mockOwnerCounters);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(mockIntervalIndex, times(2)).add(any(Booking.class));
+        verify(mockOwnerCounters, times(2)).onStatusChange(owner.getId(), null, BookingStatus.WAITING);
+    }
+
+    @Test
+    @DisplayName("Решение, принятое параллельным запросом, не перезаписывается")
+    void updateBooking_statusChangedConcurrently() {
+        Booking oldBooking = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
+        when(mockUserService.getUserById(anyLong())).thenReturn(ownerDto);
+        when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(mockBookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(0);
+
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> bookingService.updateBooking(oldBooking.getId(), owner.getId(), false));
+
+        assertEquals("Не новое бронирование, решение уже принято", exception.getMessage());
+        verifyNoInteractions(mockIntervalIndex, mockOwnerCounters, mockEvents);
     }
 
     @Test
@@ -219,12 +412,12 @@ class BookingServiceImplTest {
     void getBookingById() {
         when(mockUserService.getUserById(anyLong())).thenReturn(ownerDto);
         when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
-        when(mockItemService.findItemsByOwnerId(anyLong())).thenReturn(List.of(item1, item2));
         BookingOutcomeDto test = BookingMapper.toBookingDto(booking1);
 
         BookingOutcomeDto actual = bookingService.getBookingById(owner.getId(), booking1.getId());
 
         assertEquals(test, actual);
+        verifyNoInteractions(mockItemService);
     }
 
     @Test
@@ -255,10 +448,8 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Попытка посмотреть чужое бронирование")
     void getBookingById_otherPeoplesBooking() {
-        List<Item> itemListTest = mockItemService.findItemsByOwnerId(booking1.getBooker().getId());
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
         when(mockBookingRepository.findById(anyLong())).thenReturn(Optional.of(booking1));
-        when(mockItemService.findItemsByOwnerId(anyLong())).thenReturn(itemListTest);
 
         final DataNotFoundException exception = Assertions.assertThrows(
                 DataNotFoundException.class,
@@ -271,12 +462,12 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Получение бронирования по пользователю CURRENT")
     void getBookingsByUser_CURRENT() {
-        List<Booking> bookingList = List.of(booking1, booking2);
+        List<BookingOutcomeDto> bookingList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
-        when(mockBookingRepository.getBookingForBookerAndStartIsBeforeAndEndAfter(
-                anyLong(), any())).thenReturn(bookingList);
+        when(mockBookingRepository.search(eq(BookingRole.BOOKER), eq(1L), eq(SearchStatus.CURRENT), any(),
+                isNull(), eq(PageRequest.of(0, 10)))).thenReturn(bookingList);
 
-        List<Booking> result = bookingService.getBookingsByUser(1L, SearchStatus.CURRENT, 0, 10);
+        List<BookingOutcomeDto> result = bookingService.getBookingsByUser(1L, SearchStatus.CURRENT, 0, 10);
 
         assertEquals(bookingList, result);
     }
@@ -284,12 +475,12 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Получение бронирования по пользователю PAST")
     void getBookingsByUser_PAST() {
-        List<Booking> bookingList = List.of(booking1, booking2);
+        List<BookingOutcomeDto> bookingList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
-        when(mockBookingRepository.getBookingForBookerAndEndBefore(
-                anyLong(), any())).thenReturn(bookingList);
+        when(mockBookingRepository.search(eq(BookingRole.BOOKER), eq(1L), eq(SearchStatus.PAST), any(),
+                isNull(), eq(PageRequest.of(0, 10)))).thenReturn(bookingList);
 
-        List<Booking> result = bookingService.getBookingsByUser(1L, SearchStatus.PAST, 0, 10);
+        List<BookingOutcomeDto> result = bookingService.getBookingsByUser(1L, SearchStatus.PAST, 0, 10);
 
         assertEquals(bookingList, result);
     }
@@ -298,11 +489,10 @@ class BookingServiceImplTest {
     @Test
     @DisplayName("Получение списка бронирований по хозяину")
     void getBookingsByOwner() {
-        List<Booking> bookingList = List.of(booking1, booking2);
         List<BookingOutcomeDto> dtoList = List.of(bookingOutcomeDto, bookingOutcomeDto2);
         when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
-        when(mockBookingRepository.getBookingByOwnerIdAndStartIsBeforeAndEndAfter(
-                anyLong(), any())).thenReturn(bookingList);
+        when(mockBookingRepository.search(eq(BookingRole.OWNER), eq(2L), eq(SearchStatus.CURRENT), any(),
+                isNull(), eq(PageRequest.of(0, 10)))).thenReturn(dtoList);
 
         List<BookingOutcomeDto> result = bookingService.getBookingsByOwner(2L, SearchStatus.CURRENT, 0, 10);
 
@@ -311,13 +501,328 @@ class BookingServiceImplTest {
     //todo дописать по статусу бронирования все варианты
 
     @Test
-    @DisplayName("Поиск по itemId всех пользователей")
-    void getBookingsForUser() {
-        List<Booking> bookingList = List.of(booking1, booking2);
-        when(mockBookingRepository.findAllByItemId(anyLong())).thenReturn(bookingList);
+    @DisplayName("Страница бронирований пользователя после курсора")
+    void getBookingsByUserAfter() {
+        BookingCursor cursor = new BookingCursor(end, 5L);
+        when(mockUserService.getUserById(anyLong())).thenReturn(bookerDto);
+        when(mockBookingRepository.search(eq(BookingRole.BOOKER), eq(1L), eq(SearchStatus.WAITING), any(),
+                eq(cursor), eq(PageRequest.of(0, 2)))).thenReturn(List.of(bookingOutcomeDto, bookingOutcomeDto2));
 
-        List<Booking> result = bookingService.getBookingsForUser(1L);
+        List<BookingOutcomeDto> result = bookingService.getBookingsByUserAfter(1L, SearchStatus.WAITING, cursor, 2);
 
-        assertEquals(bookingList, result);
+        assertEquals(List.of(bookingOutcomeDto, bookingOutcomeDto2), result);
+    }
+
+    @Test
+    @DisplayName("Первая страница бронирований владельца в режиме курсора")
+    void getBookingsByOwnerAfter_firstPage() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(ownerDto);
+        when(mockBookingRepository.search(eq(BookingRole.OWNER), eq(2L), eq(SearchStatus.ALL), any(),
+                isNull(), eq(PageRequest.of(0, 10)))).thenReturn(List.of(bookingOutcomeDto));
+
+        List<BookingOutcomeDto> result = bookingService.getBookingsByOwnerAfter(2L, SearchStatus.ALL, null, 10);
+
+        assertEquals(List.of(bookingOutcomeDto), result);
+    }
+
+    @Test
+    @DisplayName("Страница бронирований после курсора по несуществующему пользователю")
+    void getBookingsByUserAfter_UserNotFound() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(null);
+
+        final DataNotFoundException exception = Assertions.assertThrows(
+                DataNotFoundException.class,
+                () -> bookingService.getBookingsByUserAfter(99L, SearchStatus.ALL, null, 10));
+
+        assertEquals("Пользователь не найден.", exception.getMessage());
+        verifyNoInteractions(mockBookingRepository);
+    }
+
+    @Test
+    @DisplayName("Страница бронирований владельца после курсора по несуществующему пользователю")
+    void getBookingsByOwnerAfter_UserNotFound() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(null);
+
+        final DataNotFoundException exception = Assertions.assertThrows(
+                DataNotFoundException.class,
+                () -> bookingService.getBookingsByOwnerAfter(99L, SearchStatus.ALL, null, 10));
+
+        assertEquals("Пользователь не найден.", exception.getMessage());
+        verifyNoInteractions(mockBookingRepository);
+    }
+
+    @Test
+    @DisplayName("Проверка завершённого бронирования вещи пользователем")
+    void hasFinishedBooking() {
+        when(mockBookingRepository.existsFinishedBooking(eq(1L), eq(2L), any())).thenReturn(true);
+
+        assertTrue(bookingService.hasFinishedBooking(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Решение по бронированиям: истёкшее пропускается, параллельно изменённое не применяется")
+    void decideBookings() {
+        when(mockUserService.getUserById(2L)).thenReturn(ownerDto);
+        BookingDecisionView expired = decisionView(1L, BookingStatus.WAITING, LocalDateTime.now().minusDays(1));
+        BookingDecisionView waiting = decisionView(2L, BookingStatus.WAITING, LocalDateTime.now().plusDays(1));
+        when(mockBookingRepository.findDecisionViews(any())).thenReturn(List.of(expired, waiting));
+        when(mockBatchRepository.decide(eq(2L), eq(Map.of(2L, BookingStatus.REJECTED)), any()))
+                .thenReturn(Set.of());
+
+        List<BookingDecisionResultDto> result = bookingService.decideBookings(2L, List.of(
+                new BookingDecisionDto(1L, true), new BookingDecisionDto(2L, false)));
+
+        assertEquals(List.of(new BookingDecisionResultDto(1L, DecisionOutcome.EXPIRED),
+                new BookingDecisionResultDto(2L, DecisionOutcome.NOT_WAITING)), result);
+        verify(mockIntervalIndex, never()).remove(anyLong(), anyLong());
+        verify(mockOwnerCounters, never()).onStatusChange(anyLong(), any(), any());
+        verify(mockEvents, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Повторяющееся бронирование в списке решений")
+    void decideBookings_duplicate() {
+        when(mockUserService.getUserById(2L)).thenReturn(ownerDto);
+
+        Assertions.assertThrows(ValidationException.class, () -> bookingService.decideBookings(2L, List.of(
+                new BookingDecisionDto(1L, true), new BookingDecisionDto(1L, false))));
+    }
+
+    @Test
+    @DisplayName("Сводка бронирований владельца")
+    void getOwnerSummary() {
+        BookingTimeCounts counts = new BookingTimeCounts() {
+            @Override
+            public Long getTotal() {
+                return 7L;
+            }
+
+            @Override
+            public Long getCurrent() {
+                return 1L;
+            }
+
+            @Override
+            public Long getPast() {
+                return 2L;
+            }
+
+            @Override
+            public Long getFuture() {
+                return 4L;
+            }
+        };
+        when(mockUserService.getUserById(2L)).thenReturn(ownerDto);
+        when(mockBookingRepository.countByOwnerId(eq(2L), any())).thenReturn(counts);
+        when(mockOwnerCounters.count(2L, BookingStatus.WAITING)).thenReturn(3);
+        when(mockOwnerCounters.count(2L, BookingStatus.REJECTED)).thenReturn(1);
+
+        BookingSummaryDto result = bookingService.getOwnerSummary(2L);
+
+        assertEquals(new BookingSummaryDto(7, 1, 2, 4, 3, 1), result);
+    }
+
+    @Test
+    @DisplayName("Свободные и занятые периоды вещи")
+    void getAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(mockIntervalIndex.isLoaded(item1.getId())).thenReturn(true);
+        when(mockIntervalIndex.busy(item1.getId(), from, to)).thenReturn(List.of(
+                new long[]{BookingIntervalIndex.toMicros(from.plusDays(1)), BookingIntervalIndex.toMicros(from.plusDays(2))},
+                new long[]{BookingIntervalIndex.toMicros(from.plusDays(5)), BookingIntervalIndex.toMicros(to)}));
+
+        AvailabilityDto result = bookingService.getAvailability(1L, item1.getId(), from, to);
+
+        assertEquals(List.of(new PeriodDto(from, from.plusDays(1)), new PeriodDto(from.plusDays(2), from.plusDays(5))),
+                result.getFree());
+        assertEquals(List.of(new PeriodDto(from.plusDays(1), from.plusDays(2)), new PeriodDto(from.plusDays(5), to)),
+                result.getBusy());
+        verify(mockItemService, never()).getItemById(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Занятость ещё не загруженной вещи проверяет её существование")
+    void getAvailability_itemNotLoaded() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(mockIntervalIndex.isLoaded(item1.getId())).thenReturn(false);
+        when(mockItemService.getItemById(1L, item1.getId())).thenThrow(new DataNotFoundException("Вещь с таким id не найдена."));
+
+        Assertions.assertThrows(DataNotFoundException.class,
+                () -> bookingService.getAvailability(1L, item1.getId(), from, from.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Период занятости с началом позже окончания")
+    void getAvailability_wrongPeriod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        Assertions.assertThrows(ValidationException.class,
+                () -> bookingService.getAvailability(1L, item1.getId(), from, from.minusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Последнее бронирование вещи")
+    void getLastBooking() {
+        when(mockBookingRepository.findFirstByItem_IdAndStartBeforeOrderByStartDesc(anyLong(), any()))
+                .thenReturn(Optional.of(booking1));
+
+        Booking result = bookingService.getLastBooking(item1.getId());
+
+        assertEquals(booking1, result);
+    }
+
+    @Test
+    @DisplayName("Ближайшего бронирования вещи нет")
+    void getNextBooking_notFound() {
+        when(mockBookingRepository.findFirstByItem_IdAndStartAfterAndBookingStatusNotInOrderByStartAsc(
+                anyLong(), any(), any())).thenReturn(Optional.empty());
+
+        Booking result = bookingService.getNextBooking(item1.getId());
+
+        assertNull(result);
+    }
+
+    @Test
+    @DisplayName("Последние бронирования по списку вещей")
+    void getLastBookings() {
+        when(mockBookingRepository.findLastBookingsByItemIds(any(), any()))
+                .thenReturn(List.of(itemBookingView(booking1), itemBookingView(booking2)));
+
+        Map<Long, BookingDto> result = bookingService.getLastBookings(List.of(item1.getId(), item2.getId()));
+
+        assertEquals(Map.of(
+                item1.getId(), new BookingDto(booking1.getId(), booker.getId(), start, end),
+                item2.getId(), new BookingDto(booking2.getId(), booker.getId(), start, end)), result);
+    }
+
+    @Test
+    @DisplayName("Ближайшие бронирования по пустому списку вещей")
+    void getNextBookings_emptyItems() {
+        Map<Long, BookingDto> result = bookingService.getNextBookings(List.of());
+
+        assertEquals(Map.of(), result);
+    }
+
+    @Test
+    @DisplayName("Подписка владельца на изменения бронирований")
+    void subscribeOwnerBookings() {
+        BookingEventSink sink = mock(BookingEventSink.class);
+        BookingSubscription subscription = () -> {
+        };
+        when(mockUserService.getUserById(owner.getId())).thenReturn(ownerDto);
+        when(mockOwnerStream.subscribe(owner.getId(), sink)).thenReturn(subscription);
+
+        assertEquals(subscription, bookingService.subscribeOwnerBookings(owner.getId(), sink));
+    }
+
+    @Test
+    @DisplayName("Подписка несуществующего пользователя")
+    void subscribeOwnerBookings_userNotFound() {
+        when(mockUserService.getUserById(anyLong())).thenReturn(null);
+
+        Assertions.assertThrows(DataNotFoundException.class,
+                () -> bookingService.subscribeOwnerBookings(99L, mock(BookingEventSink.class)));
+
+        verifyNoInteractions(mockOwnerStream);
+    }
+
+    @Test
+    @DisplayName("Импорт бронирований передаётся импортёру после проверки пользователя")
+    void importBookings() {
+        InputStream lines = new ByteArrayInputStream(new byte[0]);
+        BookingImportResultDto report = new BookingImportResultDto(0, 0, 0, List.of());
+        when(mockUserService.getUserById(2L)).thenReturn(ownerDto);
+        when(mockImporter.importBookings(2L, lines)).thenReturn(report);
+
+        assertEquals(report, bookingService.importBookings(2L, lines));
+    }
+
+    @Test
+    @DisplayName("Импорт бронирований несуществующим пользователем")
+    void importBookings_userNotFound() {
+        when(mockUserService.getUserById(2L)).thenReturn(null);
+
+        Assertions.assertThrows(DataNotFoundException.class,
+                () -> bookingService.importBookings(2L, new ByteArrayInputStream(new byte[0])));
+
+        verifyNoInteractions(mockImporter);
+    }
+
+    private ItemBookingView itemBookingView(Booking booking) {
+        return new ItemBookingView() {
+            @Override
+            public Long getId() {
+                return booking.getId();
+            }
+
+            @Override
+            public Long getItemId() {
+                return booking.getItem().getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booking.getBooker().getId();
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return booking.getStart();
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return booking.getEnd();
+            }
+        };
+    }
+
+    private BookingDecisionView decisionView(Long id, BookingStatus status, LocalDateTime end) {
+        return new BookingDecisionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return item1.getId();
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return owner.getId();
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+
+    private BookingPeriod period(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingPeriod() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerBookingCountersTest {
+    @Mock
+    private BookingRepository mockBookingRepository;
+
+    private OwnerBookingCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new OwnerBookingCounters(mockBookingRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Счётчики владельца читаются из базы один раз и обновляются при смене статуса")
+    void countAndChange() {
+        when(mockBookingRepository.countStatusesByOwnerId(2L)).thenReturn(counts(1L, 1L));
+
+        assertEquals(1, counters.count(2L, BookingStatus.WAITING));
+        counters.onStatusChange(2L, null, BookingStatus.WAITING);
+        counters.onStatusChange(2L, BookingStatus.WAITING, BookingStatus.REJECTED);
+        counters.onStatusChange(2L, BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertEquals(0, counters.count(2L, BookingStatus.WAITING));
+        assertEquals(2, counters.count(2L, BookingStatus.REJECTED));
+        assertEquals(0, counters.count(2L, BookingStatus.APPROVED));
+        verify(mockBookingRepository, times(1)).countStatusesByOwnerId(2L);
+    }
+
+    @Test
+    @DisplayName("Смена статуса у незагруженного владельца не читает базу")
+    void onStatusChange_notLoaded() {
+        counters.onStatusChange(2L, null, BookingStatus.WAITING);
+
+        verifyNoInteractions(mockBookingRepository);
+    }
+
+    @Test
+    @DisplayName("Счётчики владельца перечитываются из базы по истечении срока жизни")
+    void count_expired() {
+        counters = new OwnerBookingCounters(mockBookingRepository, new SimpleMeterRegistry(), 100, Duration.ZERO);
+        when(mockBookingRepository.countStatusesByOwnerId(2L)).thenReturn(counts(1L, 0L), counts(3L, 0L));
+
+        assertEquals(List.of(1, 3), List.of(counters.count(2L, BookingStatus.WAITING),
+                counters.count(2L, BookingStatus.WAITING)));
+    }
+
+    @Test
+    @DisplayName("Сброшенные счётчики владельца перечитываются из базы")
+    void evict() {
+        when(mockBookingRepository.countStatusesByOwnerId(2L)).thenReturn(counts(1L, 0L), counts(0L, 0L));
+
+        assertEquals(1, counters.count(2L, BookingStatus.WAITING));
+        counters.evict(2L);
+
+        assertEquals(0, counters.count(2L, BookingStatus.WAITING));
+    }
+
+    private BookingStatusCounts counts(Long waiting, Long rejected) {
+        return new BookingStatusCounts() {
+            @Override
+            public Long getWaiting() {
+                return waiting;
+            }
+
+            @Override
+            public Long getRejected() {
+                return rejected;
+            }
+        };
+    }
+}
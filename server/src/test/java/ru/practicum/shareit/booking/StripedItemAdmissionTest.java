@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StripedItemAdmissionTest {
+    @Mock
+    private TransactionTemplate mockTransactionTemplate;
+
+    private StripedItemAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        admission = new StripedItemAdmission(mockTransactionTemplate, 16);
+    }
+
+    @Test
+    @DisplayName("Действия по одной вещи ждут друг друга, по другой вещи - выполняются сразу")
+    void admit_serializesSameItemOnly() throws Exception {
+        when(mockTransactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        long otherItem = 2L;
+        while (admission.stripe(otherItem) == admission.stripe(1L)) {
+            otherItem++;
+        }
+        long other = otherItem;
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> admission.admit(1L, () -> {
+            inside.countDown();
+            await(release);
+            return "first";
+        }));
+        inside.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<String> sameItem = CompletableFuture.supplyAsync(() -> admission.admit(1L, () -> "same"));
+        String otherResult = CompletableFuture.supplyAsync(() -> admission.admit(other, () -> "other"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("other", otherResult);
+        assertThrows(TimeoutException.class, () -> sameItem.get(100, TimeUnit.MILLISECONDS));
+        assertFalse(first.isDone());
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("same", sameItem.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Допуск к нескольким вещам держит очередь каждой из них до конца действия")
+    void admitAll_holdsEveryItem() throws Exception {
+        when(mockTransactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        long sameStripe = 2L;
+        while (admission.stripe(sameStripe) != admission.stripe(1L)) {
+            sameStripe++;
+        }
+        List<Long> items = List.of(3L, 1L, sameStripe);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> all = CompletableFuture.supplyAsync(() -> admission.admitAll(items, () -> {
+            inside.countDown();
+            await(release);
+            return "all";
+        }));
+        inside.await(5, TimeUnit.SECONDS);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> admission.admit(1L, () -> "1"));
+        CompletableFuture<String> third = CompletableFuture.supplyAsync(() -> admission.admit(3L, () -> "3"));
+
+        assertThrows(TimeoutException.class, () -> first.get(100, TimeUnit.MILLISECONDS));
+        assertThrows(TimeoutException.class, () -> third.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertEquals("all", all.get(5, TimeUnit.SECONDS));
+        assertEquals("1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("3", third.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Число блокировок округляется до степени двойки, соседние ID попадают в разные")
+    void stripe() {
+        StripedItemAdmission rounded = new StripedItemAdmission(mockTransactionTemplate, 100);
+
+        for (long id = 1; id < 1000; id++) {
+            int stripe = rounded.stripe(id);
+            assertEquals(stripe & 127, stripe);
+        }
+        assertNotEquals(admission.stripe(1L), admission.stripe(2L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingCursorTest {
+
+    @Test
+    @DisplayName("Курсор восстанавливается из строки")
+    void encodeAndDecode() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, 3, 3, 12, 0, 15, 123000), 42L);
+
+        BookingCursor result = BookingCursor.decode(cursor.encode());
+
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    @DisplayName("Некорректный курсор")
+    void decode_invalid() {
+        final ValidationException exception = Assertions.assertThrows(
+                ValidationException.class,
+                () -> BookingCursor.decode("abc"));
+
+        assertEquals("Некорректный курсор: abc", exception.getMessage());
+    }
+}
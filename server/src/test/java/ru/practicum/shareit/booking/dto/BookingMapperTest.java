@@ -25,7 +25,8 @@ class BookingMapperTest {
         Booking booking1 = new Booking(1L, start, end,
                 item1, booker, BookingStatus.WAITING);
         BookingOutcomeDto bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
-                item1, booker, booking1.getBookingStatus().name());
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
 
         BookingOutcomeDto result = BookingMapper.toBookingDto(booking1);
 
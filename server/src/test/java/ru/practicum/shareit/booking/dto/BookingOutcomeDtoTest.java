@@ -33,9 +33,14 @@ class BookingOutcomeDtoTest {
         Booking booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
 
         BookingOutcomeDto bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
-                item1, booker, booking1.getBookingStatus().name());
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
         JsonContent<BookingOutcomeDto> result = jacksonTester.write(bookingOutcomeDto);
         assertThat(result).hasJsonPath("$.start");
         assertThat(result).hasJsonPath("$.end");
+        assertThat(result).extractingJsonPathStringValue("$.item.name").isEqualTo("item1");
+        assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(1);
+        assertThat(result).doesNotHaveJsonPath("$.item.owner");
+        assertThat(result).doesNotHaveJsonPath("$.booker.email");
     }
 }
\ No newline at end of file
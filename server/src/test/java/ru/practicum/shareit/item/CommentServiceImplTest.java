@@ -10,7 +10,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.dto.SearchStatus;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -97,10 +96,9 @@ class CommentServiceImplTest {
     @DisplayName("Успешное добавление комментария")
     void addComment_isSuccess() {
         String text = "comment1";
-        List<Booking> bookingList = List.of(booking1);
         when(userService.getUserById(owner.getId())).thenReturn(ownerDto);
         when(itemService.getItemById(owner.getId(), item1.getId())).thenReturn(item1);
-        when(bookingService.getBookingsByUser(owner.getId(), SearchStatus.PAST, 0, 0)).thenReturn(bookingList);
+        when(bookingService.hasFinishedBooking(owner.getId(), item1.getId())).thenReturn(true);
 
         commentService.addComment(owner.getId(), item1.getId(), text);
 
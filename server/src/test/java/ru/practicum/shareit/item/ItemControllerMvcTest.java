@@ -13,7 +13,10 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.AvailabilityDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.booking.dto.PeriodDto;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -75,8 +78,12 @@ class ItemControllerMvcTest {
         item2 = new Item(2L, "item2", "description2", Status.AVAILABLE, owner, request2);
         booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
         booking2 = new Booking(2L, start, end, item2, booker, BookingStatus.WAITING);
-        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end, item1, booker, booking1.getBookingStatus().name());
-        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end, item2, booker, booking2.getBookingStatus().name());
+        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
+        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end,
+                BookingMapper.toBookingItemDto(item2), BookingMapper.toBookerDto(booker),
+                booking2.getBookingStatus().name());
         comment1 = new Comment(1L, "comment1", item1, booker, created);
     }
 
@@ -84,7 +91,7 @@ class ItemControllerMvcTest {
     @DisplayName("Получен запрос - показать список вещей пользователя ")
     void get() throws Exception {
         List<CommentDto> commentDtoList = List.of();
-        List<Item> itemList = List.of(item1);
+        List<ItemOutcomeDto> itemList = List.of(ItemMapper.toItemDto(item1));
         when(itemService.getItemsToPage(anyLong(), anyInt(), anyInt())).thenReturn(itemList);
         List<ItemOutcomeInfoDto> dtoList = List.of(new ItemOutcomeInfoDto(
                 1L, "item1", "description1", true, ownerDto, request1.getId(), null, null, commentDtoList));
@@ -196,6 +203,27 @@ class ItemControllerMvcTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("Занятость вещи за период")
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(3);
+        AvailabilityDto availability = new AvailabilityDto(1L, from, to,
+                List.of(new PeriodDto(from, from.plusDays(1))), List.of(new PeriodDto(from.plusDays(1), to)));
+        when(bookingService.getAvailability(2L, 1L, from, to)).thenReturn(availability);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/availability", 1L)
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-04T00:00:00"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(availability), result);
+    }
+
     @Test
     @DisplayName("Удаление вещи")
     void deleteItemTest() throws Exception {
@@ -207,9 +235,8 @@ class ItemControllerMvcTest {
     @Test
     @DisplayName("Получен запрос на поиск итема")
     void searchItem() throws Exception {
-        List<Item> itemList = List.of(item1);
         List<ItemOutcomeDto> dtoList = List.of(ItemMapper.toItemDto(item1));
-        when(itemService.getItemsByDescription(anyString(), anyInt(), anyInt())).thenReturn(itemList);
+        when(itemService.getItemsByDescription(anyString(), anyInt(), anyInt())).thenReturn(dtoList);
 
         String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
                         .header("X-Sharer-User-Id", 1L)
@@ -224,6 +251,72 @@ class ItemControllerMvcTest {
         assertEquals(objectMapper.writeValueAsString(dtoList), result);
     }
 
+    @Test
+    @DisplayName("Получен запрос на поиск итема, свободного в период")
+    void searchItem_free() throws Exception {
+        List<ItemOutcomeDto> dtoList = List.of(ItemMapper.toItemDto(item1));
+        when(itemService.getFreeItemsByDescription("description1", start, end, 0, 10)).thenReturn(dtoList);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "description1")
+                        .param("freeFrom", start.toString())
+                        .param("freeTo", end.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(dtoList), result);
+    }
+
+    @Test
+    @DisplayName("Поиск свободных итемов без окончания периода отклоняется")
+    void searchItem_freeWithoutEnd() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "description1")
+                        .param("freeFrom", start.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Получен запрос на страницу поиска итема с числом совпадений")
+    void searchItemPage() throws Exception {
+        ItemSearchPageDto page = new ItemSearchPageDto(List.of(ItemMapper.toItemDto(item1)), 1000, false);
+        when(itemService.getItemsPageByDescription("description1", null, null, 2, 10)).thenReturn(page);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/search/page")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "description1")
+                        .param("from", "20")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(page), result);
+    }
+
+    @Test
+    @DisplayName("Получен запрос на подсказку названий")
+    void suggestItems() throws Exception {
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(1L, "Дрель ударная"));
+        when(itemService.suggestItems("дре", 5)).thenReturn(suggestions);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/suggest")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("prefix", "дре")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(suggestions), result);
+    }
+
     @Test
     @DisplayName("Добавление комментария")
     void addComment() throws Exception {
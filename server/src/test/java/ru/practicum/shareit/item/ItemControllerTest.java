@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -19,6 +20,7 @@ import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -85,17 +87,33 @@ class ItemControllerTest {
         assertEquals(itemOutcomeDto, result);
     }
 
+    @Test
+    @DisplayName("Список вещей владельца с бронированиями")
+    void get() {
+        List<CommentDto> commentDtoList = List.of(CommentMapper.toCommentDto(comment1));
+        BookingDto nextBooking = new BookingDto(booking1.getId(), booker.getId(), booking1.getStart(), booking1.getEnd());
+        when(itemService.getItemsToPage(anyLong(), anyInt(), anyInt())).thenReturn(List.of(ItemMapper.toItemDto(item1)));
+        when(bookingService.getLastBookings(List.of(item1.getId()))).thenReturn(Map.of());
+        when(bookingService.getNextBookings(List.of(item1.getId()))).thenReturn(Map.of(item1.getId(), nextBooking));
+        when(commentService.getComments(item1.getId())).thenReturn(List.of(comment1));
+        ItemOutcomeInfoDto infoDto = ItemMapper.toItemInfoDto(item1, null, booking1, commentDtoList);
+
+        List<ItemOutcomeInfoDto> result = itemController.get(owner.getId(), 0, 10);
+
+        assertEquals(List.of(infoDto), result);
+    }
+
     @Test
     @DisplayName("Список вещей")
     void getItemById() {
         List<Comment> commentList = List.of(comment1, comment2);
         List<CommentDto> commentDtoList = List.of(CommentMapper.toCommentDto(comment1), CommentMapper.toCommentDto(comment2));
-        List<Booking> bookingList = List.of(booking1);
         when(itemService.getItemById(anyLong(), anyLong())).thenReturn(item1);
         when(commentService.getComments(item1.getId())).thenReturn(commentList);
         when(itemService.userIsOwnerOfItem(anyLong(), anyLong())).thenReturn(true);
-        when(bookingService.getBookingsForUser(anyLong())).thenReturn(bookingList);
-        ItemOutcomeInfoDto infoDto = ItemMapper.toItemInfoDto(item1, bookingList, commentDtoList);
+        when(bookingService.getLastBooking(anyLong())).thenReturn(null);
+        when(bookingService.getNextBooking(anyLong())).thenReturn(booking1);
+        ItemOutcomeInfoDto infoDto = ItemMapper.toItemInfoDto(item1, null, booking1, commentDtoList);
 
         ItemOutcomeInfoDto result = itemController.getItemById(booker.getId(), item1.getId());
 
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemPrefixTrieTest {
+    private ItemPrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new ItemPrefixTrie(2);
+        trie.setBookings(2L, 5);
+        trie.put(1L, "Дрель ударная");
+        trie.put(2L, "Дрель-шуруповёрт");
+        trie.put(3L, "Дренажный насос");
+        trie.put(4L, "Пила");
+    }
+
+    @Test
+    @DisplayName("По префиксу слова сначала самые бронируемые вещи, затем по ID, не больше размера верхушки")
+    void top() {
+        assertEquals(List.of(2L, 1L), trie.top("дре", 10));
+        assertEquals(List.of(2L), trie.top("дре", 1));
+        assertEquals(List.of(2L), trie.top("шуруп", 10));
+        assertEquals(List.of(3L), trie.top("нас", 10));
+        assertEquals(List.of(), trie.top("лест", 10));
+        assertEquals(List.of(), trie.top("", 10));
+    }
+
+    @Test
+    @DisplayName("Если фильтр отсекает верхушку, подходящие вещи ищутся во всём поддереве префикса")
+    void top_filtered() {
+        assertEquals(List.of(3L), trie.top("дре", 10, id -> id == 3L));
+        assertEquals(List.of(2L, 1L, 3L), trie.top("дре", 10, id -> true));
+        assertEquals(List.of(1L), trie.top("дре", 1, id -> id != 2L));
+        assertEquals(List.of(), trie.top("дре", 10, id -> id == 4L));
+    }
+
+    @Test
+    @DisplayName("Новое бронирование поднимает вещь в верхушках всех префиксов её слов")
+    void addBooking() {
+        for (int i = 0; i < 6; i++) {
+            trie.addBooking(3L);
+        }
+
+        assertEquals(List.of(3L, 2L), trie.top("д", 10));
+        assertEquals(List.of(3L), trie.top("насос", 10));
+    }
+
+    @Test
+    @DisplayName("После удаления вещи верхушка пересчитывается из оставшихся")
+    void remove() {
+        trie.remove(2L);
+
+        assertEquals(List.of(1L, 3L), trie.top("дре", 10));
+        assertEquals(List.of(), trie.top("шуруп", 10));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    @DisplayName("Переименованная вещь ищется только по новому названию")
+    void put_rename() {
+        trie.put(4L, "Лестница");
+
+        assertEquals(List.of(), trie.top("пил", 10));
+        assertEquals(List.of(4L), trie.top("лес", 10));
+        assertEquals("Лестница", trie.name(4L));
+    }
+}
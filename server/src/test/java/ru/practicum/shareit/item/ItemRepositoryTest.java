@@ -10,6 +10,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequest;
@@ -77,8 +81,8 @@ class ItemRepositoryTest {
     }
 
     @Test
-    @DisplayName("Получение списка вещей по описанию")
-    void getItemsByDescription() {
+    @DisplayName("Получение ID вещей по описанию")
+    void findAvailableIdsByText() {
         item2.setDescription(item1.getDescription());
         entityManager.persist(owner);
         entityManager.persist(booker);
@@ -86,11 +90,50 @@ class ItemRepositoryTest {
         entityManager.persist(request2);
         entityManager.persist(item1);
         entityManager.persist(item2);
-        List<Item> itemList = List.of(item1, item2);
 
-        List<Item> result = itemRepository.getItemsByDescription(item1.getDescription(), pageable).getContent();
+        List<Long> result = itemRepository.findAvailableIdsByText(item1.getDescription().toUpperCase(), pageable);
 
-        assertEquals(itemList, result);
+        assertEquals(List.of(item1.getId(), item2.getId()), result);
+    }
+
+    @Test
+    @DisplayName("Получение ID вещей по описанию без бронирований, пересекающих период")
+    void findAvailableFreeIdsByText() {
+        item2.setDescription(item1.getDescription());
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        entityManager.persist(request1);
+        entityManager.persist(request2);
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        entityManager.persist(new Booking(null, start.minusDays(1), start.plusHours(1), item1, booker,
+                BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, start, start.plusDays(1), item2, booker, BookingStatus.REJECTED));
+        entityManager.persist(new Booking(null, start.plusDays(1), start.plusDays(2), item2, booker,
+                BookingStatus.WAITING));
+
+        List<Long> result = itemRepository.findAvailableFreeIdsByText(item1.getDescription(), start,
+                start.plusDays(1), pageable);
+
+        assertEquals(List.of(item2.getId()), result);
+    }
+
+    @Test
+    @DisplayName("Получение доступных вещей по списку ID")
+    void findAvailableOutcomesByIds() {
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        entityManager.persist(request1);
+        entityManager.persist(request2);
+        entityManager.persist(item1);
+        entityManager.persist(item2);
+        item2.setAvailable(Status.UNAVAILABLE);
+        entityManager.flush();
+
+        List<ItemOutcomeDto> result = itemRepository.findAvailableOutcomesByIds(List.of(item1.getId(), item2.getId()));
+
+        assertEquals(List.of(ItemMapper.toItemDto(item1)), result);
     }
 
     @Test
@@ -153,9 +196,9 @@ class ItemRepositoryTest {
         entityManager.persist(request2);
         entityManager.persist(item1);
         entityManager.persist(item2);
-        List<Item> itemList = List.of(item1, item2);
+        List<ItemOutcomeDto> itemList = List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item2));
 
-        List<Item> result = itemRepository.findAllByUserIdPage(owner.getId(), pageable).getContent();
+        List<ItemOutcomeDto> result = itemRepository.findAllByUserIdPage(owner.getId(), pageable);
 
         assertEquals(itemList, result);
     }
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Поиск вещей на миллионе строк в PostgreSQL: прежний запрос like против индекса pg_trgm.
+ * Нужна отдельная база с именем на _bench, она очищается и заполняется заново:
+ * mvn test -Pbenchmark -Dshareit.benchmark.postgres-url=jdbc:postgresql://localhost:5432/shareit_bench
+ * (пользователь и пароль - shareit.benchmark.postgres-user и shareit.benchmark.postgres-password)
+ */
+@Tag("benchmark")
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark.postgres-url", matches = ".+")
+class ItemSearchBenchmarkTest {
+    private static final int ITEMS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 20;
+    private static final String SCRATCH_SUFFIX = "_bench";
+    private static final String LIKE_QUERY = "select id from items " +
+            "where (upper(name) like upper('%' || ? || '%') or upper(description) like upper('%' || ? || '%')) " +
+            "and is_available = 'AVAILABLE' order by id limit ? offset ?";
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TrigramItemSearch trigramSearch;
+
+    @BeforeAll
+    static void seed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("shareit.benchmark.postgres-url"),
+                System.getProperty("shareit.benchmark.postgres-user", "postgres"),
+                System.getProperty("shareit.benchmark.postgres-password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String database = jdbcTemplate.queryForObject("select current_database()", String.class);
+        if (database == null || !database.endsWith(SCRATCH_SUFFIX)) {
+            throw new IllegalStateException("База " + database + " будет очищена; для замеров нужна отдельная база "
+                    + "с именем на " + SCRATCH_SUFFIX);
+        }
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+        trigramSearch = new TrigramItemSearch(new NamedParameterJdbcTemplate(jdbcTemplate));
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@mail.ru')");
+        long startedAt = System.nanoTime();
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) " +
+                "select case when i % 100000 = 0 then 'Перфоратор ' else w[1 + i % 40] || ' ' end || i, " +
+                "'Б/у, ' || w[1 + (i / 40) % 40] || ' и ' || w[1 + (i * 7) % 40] || ' в комплекте', " +
+                "case when i % 10 = 0 then 'UNAVAILABLE' else 'AVAILABLE' end, 1 " +
+                "from generate_series(1, " + ITEMS + ") as i, (select array[" +
+                "'Дрель', 'Лестница', 'Пила', 'Молоток', 'Отвёртка', 'Стремянка', 'Палатка', 'Спальник', " +
+                "'Велосипед', 'Самокат', 'Лыжи', 'Сноуборд', 'Коньки', 'Мангал', 'Котелок', 'Фонарь', " +
+                "'Рюкзак', 'Удочка', 'Лодка', 'Насос', 'Газонокосилка', 'Триммер', 'Секатор', 'Лопата', " +
+                "'Грабли', 'Тачка', 'Пылесос', 'Утюг', 'Миксер', 'Блендер', 'Мультиварка', 'Проектор', " +
+                "'Колонка', 'Гитара', 'Синтезатор', 'Штатив', 'Фотоаппарат', 'Объектив', 'Шуруповёрт', " +
+                "'Болгарка']) as v(w)");
+        jdbcTemplate.execute("analyze items");
+        log.info("Вставлено {} вещей за {} с", ITEMS,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt));
+    }
+
+    @Test
+    @DisplayName("Поиск по индексу триграмм против полного чтения items")
+    void compareLikeWithTrigram() {
+        log.info(String.format("%-12s %-8s %12s %12s", "запрос", "страница", "like, мс", "pg_trgm, мс"));
+        for (String text : List.of("перфоратор", "вертолёт", "дрель", "ДРЕЛЬ 12")) {
+            for (int page : new int[]{0, 100}) {
+                double like = measure(() -> jdbcTemplate.queryForList(LIKE_QUERY, Long.class, text, text,
+                        PAGE_SIZE, page * PAGE_SIZE));
+                double trigram = measure(() -> trigramSearch.search(text, page, PAGE_SIZE));
+                log.info(String.format("%-12s %-8d %12.2f %12.2f", text, page, like, trigram));
+            }
+        }
+
+        assertEquals(new HashSet<>(jdbcTemplate.queryForList(LIKE_QUERY, Long.class, "перфоратор", "перфоратор",
+                        PAGE_SIZE, 0)),
+                new HashSet<>(trigramSearch.search("перфоратор", 0, PAGE_SIZE)));
+    }
+
+    /**
+     * Среднее время запроса в миллисекундах после прогрева
+     */
+    private static double measure(Supplier<List<Long>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - startedAt) / 1e6 / ITERATIONS;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+    private MeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(meterRegistry, 100, Duration.ofMinutes(1));
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Повторный запрос в другом регистре берётся из кэша, метрики считают попадания и промахи")
+    void get() {
+        assertEquals(List.of(1L, 2L), cache.get("Дрель", 0, 10, this::search));
+        assertEquals(List.of(1L, 2L), cache.get("дРЕЛЬ", 0, 10, this::search));
+        cache.get("дрель", 1, 10, this::search);
+
+        assertEquals(2, searches.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", ItemSearchCache.NAME, "result", "hit")
+                .functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", ItemSearchCache.NAME, "result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Одновременные промахи по одному ключу выполняют один поиск")
+    void get_concurrentMisses() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> cache.get("дрель", 0, 10, () -> {
+            searching.countDown();
+            await(release);
+            return search();
+        })));
+        searching.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            futures.add(executor.submit(() -> cache.get("дрель", 0, 10, this::search)));
+        }
+        release.countDown();
+
+        for (Future<List<Long>> future : futures) {
+            assertEquals(List.of(1L, 2L), future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    @DisplayName("Изменение вещи сбрасывает все страницы только тех запросов, что находят её текст")
+    void evictMatching() {
+        cache.get("дрель", 0, 10, this::search);
+        cache.get("дрель", 1, 10, this::search);
+        cache.get("лестница", 0, 10, this::search);
+
+        cache.evictMatching("Дрель ударная", "800 Вт");
+        cache.get("дрель", 0, 10, this::search);
+        cache.get("дрель", 1, 10, this::search);
+        cache.get("лестница", 0, 10, this::search);
+
+        assertEquals(5, searches.get());
+    }
+
+    @Test
+    @DisplayName("Поиск, во время которого кэш сбросили, не остаётся в кэше")
+    void evictMatching_duringSearch() throws Exception {
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<List<Long>> stale = executor.submit(() -> cache.get("дрель", 0, 10, () -> {
+            searching.countDown();
+            await(release);
+            return search();
+        }));
+        searching.await(5, TimeUnit.SECONDS);
+
+        cache.evictMatching("Дрель ударная");
+        release.countDown();
+
+        assertEquals(List.of(1L, 2L), stale.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(List.of(3L), cache.get("дрель", 0, 10, () -> List.of(3L)));
+    }
+
+    @Test
+    @DisplayName("Сброс одних запросов не выбрасывает из кэша страницы, загруженные до него")
+    void evictMatching_keepsEarlierPages() {
+        cache.get("лестница", 0, 10, this::search);
+
+        cache.evictMatching("Дрель ударная");
+        cache.get("лестница", 0, 10, this::search);
+        cache.get("лестница", 0, 10, this::search);
+
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    @DisplayName("Число совпадений хранится отдельно от страниц и сбрасывается вместе с ними")
+    void count() {
+        assertEquals(2, cache.count("Дрель", 1001, () -> search().size()));
+        assertEquals(2, cache.count("дрель", 1001, () -> search().size()));
+        assertEquals(List.of(1L, 2L), cache.get("дрель", 0, 10, this::search));
+
+        cache.evictMatching("Дрель ударная");
+        cache.count("дрель", 1001, () -> search().size());
+
+        assertEquals(3, searches.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", ItemSearchCache.COUNT_NAME, "result", "hit")
+                .functionCounter().count());
+    }
+
+    private List<Long> search() {
+        searches.incrementAndGet();
+        return List.of(1L, 2L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -15,6 +15,8 @@ import ru.practicum.shareit.booking.BookingServiceImpl;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingIncomeDto;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequest;
@@ -25,6 +27,9 @@ import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,7 +37,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureTestDatabase
 @ActiveProfiles("test")
-@Sql(scripts = {"file:src/main/resources/schema.sql"})
+@Sql(scripts = {"classpath:cleanup.sql"})
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 class ItemServiceImplIntegrationTest {
     private final BookingServiceImpl bookingService;
@@ -146,4 +151,89 @@ class ItemServiceImplIntegrationTest {
         Item actual = itemService.getItemById(owner.getId(), expected.getId());
         assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemsByDescription_followsItemChanges() {
+        userRepository.save(owner);
+        Item drill = itemService.addNewItem(owner.getId(), "Дрель-шуруповёрт", "аккумуляторная", true, null);
+        Item saw = itemService.addNewItem(owner.getId(), "Пила", "шуруповёрт в комплекте", true, null);
+        Item ladder = itemService.addNewItem(owner.getId(), "Лестница", "без шуруповёрта", false, null);
+
+        assertEquals(List.of(drill.getId(), saw.getId()), ids(itemService.getItemsByDescription("ШУРУПОВЁРТ", 0, 10)));
+
+        itemService.updateItem(owner.getId(), drill.getId(), null, null, false);
+        itemService.updateItem(owner.getId(), ladder.getId(), null, null, true);
+        assertEquals(List.of(saw.getId(), ladder.getId()), ids(itemService.getItemsByDescription("шуруповёрт", 0, 10)));
+
+        itemService.updateItem(owner.getId(), saw.getId(), null, "циркулярная", null);
+        itemService.deleteItem(owner.getId(), ladder.getId());
+        assertEquals(List.of(), itemService.getItemsByDescription("шуруповёрт", 0, 10));
+    }
+
+    @Test
+    void getFreeItemsByDescription_skipsBookedItems() {
+        userRepository.save(owner);
+        userRepository.save(booker);
+        LocalDateTime freeFrom = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<Long> items = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Item item = itemService.addNewItem(owner.getId(), "Перфоратор " + i, "сетевой", true, null);
+            items.add(item.getId());
+            if (i % 3 != 2) {
+                bookingRepository.save(new Booking(null, freeFrom.minusHours(1), freeFrom.plusHours(1), item, booker,
+                        BookingStatus.APPROVED));
+            }
+        }
+
+        assertEquals(List.of(items.get(2), items.get(5)),
+                ids(itemService.getFreeItemsByDescription("перфоратор", freeFrom, freeFrom.plusDays(1), 0, 2)));
+        assertEquals(List.of(items.get(599)),
+                ids(itemService.getFreeItemsByDescription("перфоратор", freeFrom, freeFrom.plusDays(1), 199, 1)));
+        assertEquals(List.of(), itemService.getFreeItemsByDescription("перфоратор", freeFrom, freeFrom.plusDays(1), 20,
+                10));
+        assertEquals(10, itemService.getFreeItemsByDescription("перфоратор", freeFrom.plusHours(1),
+                freeFrom.plusDays(1), 59, 10).size());
+    }
+
+    @Test
+    void getItemsPageByDescription_countsHits() {
+        userRepository.save(owner);
+        userRepository.save(booker);
+        LocalDateTime freeFrom = LocalDateTime.of(2030, 1, 1, 12, 0);
+        for (int i = 0; i < 30; i++) {
+            Item item = itemService.addNewItem(owner.getId(), "Отбойный молоток " + i, "пневматический", true, null);
+            if (i % 3 != 2) {
+                bookingRepository.save(new Booking(null, freeFrom, freeFrom.plusHours(1), item, booker,
+                        BookingStatus.WAITING));
+            }
+        }
+
+        ItemSearchPageDto page = itemService.getItemsPageByDescription("отбойный", null, null, 0, 10);
+        assertEquals(10, page.getItems().size());
+        assertEquals(20, page.getTotal());
+        assertFalse(page.isTotalExact());
+
+        page = itemService.getItemsPageByDescription("отбойный", null, null, 2, 10);
+        assertEquals(10, page.getItems().size());
+        assertEquals(30, page.getTotal());
+        assertTrue(page.isTotalExact());
+
+        page = itemService.getItemsPageByDescription("отбойный", freeFrom, freeFrom.plusDays(1), 0, 4);
+        assertEquals(4, page.getItems().size());
+        assertEquals(8, page.getTotal());
+        assertFalse(page.isTotalExact());
+
+        page = itemService.getItemsPageByDescription("отбойный", freeFrom, freeFrom.plusDays(1), 1, 4);
+        assertEquals(4, page.getItems().size());
+        assertEquals(10, page.getTotal());
+        assertTrue(page.isTotalExact());
+
+        page = itemService.getItemsPageByDescription("отбойный", freeFrom, freeFrom.plusDays(1), 2, 4);
+        assertEquals(2, page.getItems().size());
+        assertEquals(10, page.getTotal());
+    }
+
+    private List<Long> ids(List<ItemOutcomeDto> items) {
+        return items.stream().map(ItemOutcomeDto::getId).collect(Collectors.toList());
+    }
+}
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import ru.practicum.shareit.exception.DataNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemOutcomeDto;
+import ru.practicum.shareit.item.dto.ItemSearchPageDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.Status;
 import ru.practicum.shareit.request.ItemRequest;
@@ -21,15 +23,19 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceImplTest {
-    @InjectMocks
     private ItemServiceImpl itemService;
     @Mock
     private ItemRepository itemRepository;
@@ -37,6 +43,12 @@ class ItemServiceImplTest {
     private UserService userService;
     @Mock
     private ItemRequestService itemRequestService;
+    @Mock
+    private ItemSearch itemSearch;
+    @Mock
+    private ItemSearchCache searchCache;
+    @Mock
+    private ItemSuggestIndex suggestIndex;
 
     private User booker;
     private User owner;
@@ -57,6 +69,8 @@ class ItemServiceImplTest {
         request2 = new ItemRequest(2L, "запрос2", booker, created);
         item1 = new Item(1L, "item1", "description1", Status.AVAILABLE, owner, request1);
         item2 = new Item(2L, "item2", "description2", Status.UNAVAILABLE, owner, request2);
+        itemService = new ItemServiceImpl(itemRepository, userService, itemRequestService, itemSearch, searchCache,
+                suggestIndex, 5, 2);
     }
 
     @Test
@@ -73,12 +87,10 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Страница вещей пользователя")
     void getItemsToPage() {
-        List<Item> itemList = List.of(item1, item2);
-        Page mockPage = mock(Page.class);
-        when(mockPage.getContent()).thenReturn(itemList);
-        when(itemRepository.findAllByUserIdPage(anyLong(), any())).thenReturn(mockPage);
+        List<ItemOutcomeDto> itemList = List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item2));
+        when(itemRepository.findAllByUserIdPage(anyLong(), any())).thenReturn(itemList);
 
-        List<Item> result = itemService.getItemsToPage(owner.getId(), 0, 10);
+        List<ItemOutcomeDto> result = itemService.getItemsToPage(owner.getId(), 0, 10);
         assertEquals(itemList, result);
     }
 
@@ -91,6 +103,9 @@ class ItemServiceImplTest {
         Item result = itemService.addNewItem(owner.getId(), "item1", "description1", true, request1.getId());
 
         assertEquals(item1, result);
+        verify(itemSearch).onItemSaved(item1);
+        verify(suggestIndex).onItemSaved(item1);
+        verify(searchCache).evictMatching("item1", "description1");
     }
 
     @Test
@@ -113,9 +128,12 @@ class ItemServiceImplTest {
         when(itemRepository.getById(1L)).thenReturn(item1);
         when(itemRepository.save(item1)).thenReturn(item1);
 
-        Item result = itemService.updateItem(owner.getId(), 1L, "item1", "description1", true);
+        Item result = itemService.updateItem(owner.getId(), 1L, "drill", null, true);
 
         assertEquals(item1, result);
+        verify(itemSearch).onItemSaved(item1);
+        verify(suggestIndex).onItemSaved(item1);
+        verify(searchCache).evictMatching("item1", "description1", "drill", "description1");
     }
 
     @Test
@@ -156,9 +174,25 @@ class ItemServiceImplTest {
     @Test
     @DisplayName("Успешное удаление вещи")
     void deleteItem() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+        when(itemRepository.deleteByUserIdAndItemId(1L, 2L)).thenReturn(1);
+
+        itemService.deleteItem(2L, 1L);
+
+        verify(itemSearch).onItemDeleted(1L);
+        verify(suggestIndex).onItemDeleted(1L);
+        verify(searchCache).evictMatching("item1", "description1");
+    }
+
+    @Test
+    @DisplayName("Удаление чужой или несуществующей вещи не меняет поиск")
+    void deleteItem_notDeleted() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+
         itemService.deleteItem(2L, 1L);
 
-        verify(itemRepository).deleteByUserIdAndItemId(2L, 1L);
+        verify(itemRepository).deleteByUserIdAndItemId(1L, 2L);
+        verifyNoInteractions(itemSearch, searchCache);
     }
 
     @Test
@@ -201,21 +235,107 @@ class ItemServiceImplTest {
     @DisplayName("Получение списка вещей по описанию")
     void getItemsByDescription() {
         item2.setDescription("description1");
-        Page mockPage = mock(Page.class);
-        when(itemRepository.getItemsByDescription(any(), any())).thenReturn(mockPage);
-        List itemList = mockPage.toList();
+        List<ItemOutcomeDto> itemList = List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item2));
+        when(searchCache.get(eq("description1"), eq(0), eq(10), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<Long>>>getArgument(3).get());
+        when(itemSearch.search("description1", 0, 10)).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findAvailableOutcomesByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(ItemMapper.toItemDto(item2), ItemMapper.toItemDto(item1)));
 
-        List<Item> result = itemService.getItemsByDescription("description1", 0, 10);
+        List<ItemOutcomeDto> result = itemService.getItemsByDescription("description1", 0, 10);
 
         assertEquals(itemList, result);
     }
 
+    @Test
+    @DisplayName("Получение списка свободных в период вещей по описанию без кэша")
+    void getFreeItemsByDescription() {
+        LocalDateTime freeFrom = LocalDateTime.of(2030, 1, 1, 12, 0);
+        when(itemSearch.searchFree("description1", freeFrom, freeFrom.plusDays(1), 0, 10)).thenReturn(List.of(2L));
+        when(itemRepository.findAvailableOutcomesByIds(List.of(2L))).thenReturn(List.of(ItemMapper.toItemDto(item2)));
+
+        List<ItemOutcomeDto> result = itemService.getFreeItemsByDescription("description1", freeFrom,
+                freeFrom.plusDays(1), 0, 10);
+
+        assertEquals(List.of(ItemMapper.toItemDto(item2)), result);
+        verifyNoInteractions(searchCache);
+    }
+
+    @Test
+    @DisplayName("Период поиска свободных вещей должен начинаться раньше окончания")
+    void getFreeItemsByDescription_wrongPeriod() {
+        LocalDateTime freeFrom = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        Assertions.assertThrows(ValidationException.class, () -> itemService.getFreeItemsByDescription("description1",
+                freeFrom, freeFrom, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Неполная последняя страница даёт точное число совпадений без подсчёта")
+    void getItemsPageByDescription_lastPage() {
+        when(searchCache.get(eq("description"), eq(1), eq(2), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<Long>>>getArgument(3).get());
+        when(itemSearch.search("description", 1, 2)).thenReturn(List.of(1L));
+        when(itemRepository.findAvailableOutcomesByIds(List.of(1L))).thenReturn(List.of(ItemMapper.toItemDto(item1)));
+
+        ItemSearchPageDto result = itemService.getItemsPageByDescription("description", null, null, 1, 2);
+
+        assertEquals(new ItemSearchPageDto(List.of(ItemMapper.toItemDto(item1)), 3, true), result);
+        verify(itemSearch, never()).count(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Для полной страницы совпадения считаются через кэш на несколько страниц вперёд")
+    void getItemsPageByDescription_fullPage() {
+        when(searchCache.get(eq("description"), eq(0), eq(1), any())).thenReturn(List.of(1L));
+        when(searchCache.count(eq("description"), eq(4), any()))
+                .thenAnswer(invocation -> invocation.<IntSupplier>getArgument(2).getAsInt());
+        when(itemSearch.count("description", 4)).thenReturn(3);
+        when(itemRepository.findAvailableOutcomesByIds(List.of(1L))).thenReturn(List.of(ItemMapper.toItemDto(item1)));
+
+        ItemSearchPageDto result = itemService.getItemsPageByDescription("description", null, null, 0, 1);
+
+        assertEquals(new ItemSearchPageDto(List.of(ItemMapper.toItemDto(item1)), 3, true), result);
+    }
+
+    @Test
+    @DisplayName("Подсчёт не заходит дальше нескольких страниц за текущей, дальше - нижняя оценка")
+    void getItemsPageByDescription_countWindow() {
+        when(searchCache.get(eq("description"), eq(0), eq(1), any())).thenReturn(List.of(1L));
+        when(searchCache.count(eq("description"), eq(4), any()))
+                .thenAnswer(invocation -> invocation.<IntSupplier>getArgument(2).getAsInt());
+        when(itemSearch.count("description", 4)).thenReturn(4);
+        when(itemRepository.findAvailableOutcomesByIds(List.of(1L))).thenReturn(List.of(ItemMapper.toItemDto(item1)));
+
+        ItemSearchPageDto result = itemService.getItemsPageByDescription("description", null, null, 0, 1);
+
+        assertEquals(new ItemSearchPageDto(List.of(ItemMapper.toItemDto(item1)), 3, false), result);
+        verify(itemSearch, never()).count("description", 6);
+    }
+
+    @Test
+    @DisplayName("Сверх предела подсчёта возвращается нижняя оценка числа свободных вещей")
+    void getItemsPageByDescription_overLimit() {
+        LocalDateTime freeFrom = LocalDateTime.of(2030, 1, 1, 12, 0);
+        when(itemSearch.searchFree("description", freeFrom, freeFrom.plusDays(1), 3, 2)).thenReturn(List.of(1L, 2L));
+        when(itemSearch.countFree("description", freeFrom, freeFrom.plusDays(1), 6)).thenReturn(6);
+        when(itemRepository.findAvailableOutcomesByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(item2)));
+
+        ItemSearchPageDto result = itemService.getItemsPageByDescription("description", freeFrom,
+                freeFrom.plusDays(1), 3, 2);
+
+        assertEquals(8, result.getTotal());
+        assertEquals(false, result.isTotalExact());
+        verifyNoInteractions(searchCache);
+    }
+
     @Test
     @DisplayName("Получение пустого списка вещей по пустому описанию")
     void getItemsByDescription_isEmpty() {
         String description = "";
 
-        List<Item> result = itemService.getItemsByDescription("", 0, 10);
+        List<ItemOutcomeDto> result = itemService.getItemsByDescription("", 0, 10);
 
         assertEquals(0, result.size());
     }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ItemSuggestIndexTest {
+    private final ItemSuggestIndex index = new ItemSuggestIndex(null, 10);
+
+    @Test
+    @DisplayName("Число подсказок вне 1..top-size отклоняется до обращения к базе")
+    void suggest_limitOutOfRange() {
+        assertThrows(ValidationException.class, () -> index.suggest("дре", 0));
+        assertThrows(ValidationException.class, () -> index.suggest("дре", -1));
+        assertThrows(ValidationException.class, () -> index.suggest("дре", 11));
+    }
+}
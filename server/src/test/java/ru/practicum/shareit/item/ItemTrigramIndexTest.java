@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemTrigramIndexTest {
+    private ItemTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemTrigramIndex();
+        index.put(3L, "Дрель ударная", "Мощная, 800 Вт");
+        index.put(1L, "Пила", "Цепная пила с дрелью в комплекте");
+        index.put(2L, "Лестница", "Стремянка, 5 ступеней");
+    }
+
+    @Test
+    @DisplayName("Подстрока ищется в названии и описании без учёта регистра, ID по возрастанию")
+    void search() {
+        assertEquals(List.of(1L, 3L), index.search("ДРЕЛ", 0, 10));
+        assertEquals(List.of(2L), index.search("янка, 5", 0, 10));
+        assertEquals(List.of(), index.search("дрелька", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Совпадение всех триграмм без подстроки не считается совпадением")
+    void search_gramsInDifferentPlaces() {
+        index.put(4L, "абвгд", "вгдабв");
+
+        assertEquals(List.of(), index.search("абвгдабв", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Запрос короче триграммы проверяется по всем вещам")
+    void search_shortQuery() {
+        assertEquals(List.of(1L, 2L, 3L), index.search("Ре", 0, 10));
+        assertEquals(List.of(2L), index.search(" 5", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Страница отсчитывается по совпадениям")
+    void search_page() {
+        index.put(5L, "Дрель", "аккумуляторная");
+        index.put(7L, "Дрель", "сетевая");
+
+        assertEquals(List.of(3L, 5L), index.search("дрел", 1, 2));
+        assertEquals(List.of(7L), index.search("дрел", 3, 2));
+    }
+
+    @Test
+    @DisplayName("Изменение заменяет текст вещи, удаление убирает вещь из поиска")
+    void putAndRemove() {
+        index.put(3L, "Перфоратор", "SDS-plus");
+        index.remove(1L);
+        index.remove(10L);
+
+        assertEquals(List.of(), index.search("дрел", 0, 10));
+        assertEquals(List.of(3L), index.search("перфо", 0, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Обход совпадений порциями продолжается после последнего ID предыдущей порции")
+    void searchAfter() {
+        index.put(5L, "Дрель", "аккумуляторная");
+
+        assertEquals(List.of(1L, 3L), index.searchAfter("дрел", Long.MIN_VALUE, 2));
+        assertEquals(List.of(5L), index.searchAfter("дрел", 3L, 2));
+        assertEquals(List.of(3L, 5L), index.searchAfter("дрел", 2L, 10));
+        assertEquals(List.of(), index.searchAfter("дрел", 5L, 2));
+    }
+}
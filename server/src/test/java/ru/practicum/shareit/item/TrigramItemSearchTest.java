@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Запросы TrigramItemSearch на H2 против LikeItemSearch. Функции word_similarity из pg_trgm
+ * в H2 нет, она заменена константой: порядок совпадений здесь не проверяется, только их состав.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Sql(scripts = {"classpath:cleanup.sql"})
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class TrigramItemSearchTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private static final int PAGE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ItemRepository itemRepository;
+
+    private TrigramItemSearch trigramSearch;
+    private LikeItemSearch likeSearch;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("create alias if not exists word_similarity for \""
+                + PgTrgm.class.getName() + ".wordSimilarity\"");
+        trigramSearch = new TrigramItemSearch(namedJdbcTemplate);
+        likeSearch = new LikeItemSearch(itemRepository);
+        jdbcTemplate.update("insert into users (name, email) values ('owner', 'owner@mail.ru')");
+        jdbcTemplate.update("insert into users (name, email) values ('booker', 'booker@mail.ru')");
+        insertItem("Дрель ударная", "Мощная дрель", "AVAILABLE");
+        insertItem("Аккумуляторная ДРЕЛЬ", "Шуруповёрт и дрель", "AVAILABLE");
+        insertItem("Дрель старая", "Не работает", "UNAVAILABLE");
+        insertItem("Пила", "Дисковая, скидка 50%", "AVAILABLE");
+        insertItem("Пила_цепная", "Бензиновая", "AVAILABLE");
+        insertItem("Лестница", "Стремянка на 5 ступеней", "AVAILABLE");
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, 1, 2, 'APPROVED')",
+                Timestamp.valueOf(NOW), Timestamp.valueOf(NOW.plusDays(1)));
+        jdbcTemplate.update("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, 2, 2, 'REJECTED')",
+                Timestamp.valueOf(NOW), Timestamp.valueOf(NOW.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Символы шаблона like экранируются")
+    void escapeLike() {
+        assertEquals("дрель", TrigramItemSearch.escapeLike("дрель"));
+        assertEquals("50\\%", TrigramItemSearch.escapeLike("50%"));
+        assertEquals("пила\\_цепная", TrigramItemSearch.escapeLike("пила_цепная"));
+        assertEquals("a\\\\b\\%", TrigramItemSearch.escapeLike("a\\b%"));
+    }
+
+    @Test
+    @DisplayName("Поиск по триграммам находит те же вещи, что и like")
+    void search_sameAsLike() {
+        for (String text : List.of("дрель", "ДРЕЛЬ", "ступеней", "пила", "вертолёт")) {
+            assertEquals(new HashSet<>(likeSearch.search(text, 0, PAGE)),
+                    new HashSet<>(trigramSearch.search(text, 0, PAGE)), text);
+            assertEquals(likeSearch.count(text, PAGE), trigramSearch.count(text, PAGE), text);
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск свободных вещей по триграммам находит те же вещи, что и like")
+    void searchFree_sameAsLike() {
+        LocalDateTime start = NOW.plusHours(12);
+        LocalDateTime end = NOW.plusDays(2);
+        for (String text : List.of("дрель", "пила")) {
+            assertEquals(new HashSet<>(likeSearch.searchFree(text, start, end, 0, PAGE)),
+                    new HashSet<>(trigramSearch.searchFree(text, start, end, 0, PAGE)), text);
+            assertEquals(likeSearch.countFree(text, start, end, PAGE),
+                    trigramSearch.countFree(text, start, end, PAGE), text);
+        }
+        assertEquals(List.of(2L), trigramSearch.searchFree("дрель", start, end, 0, PAGE));
+    }
+
+    @Test
+    @DisplayName("Процент и подчёркивание в запросе ищутся как обычные символы")
+    void search_wildcardsAreLiteral() {
+        assertEquals(List.of(4L), trigramSearch.search("50%", 0, PAGE));
+        assertEquals(List.of(5L), trigramSearch.search("а_ц", 0, PAGE));
+        assertEquals(List.of(), trigramSearch.search("л_с", 0, PAGE));
+    }
+
+    private void insertItem(String name, String description, String available) {
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) values (?, ?, ?, 1)",
+                name, description, available);
+    }
+
+    /**
+     * Замена функции pg_trgm для H2
+     */
+    public static final class PgTrgm {
+        private PgTrgm() {
+        }
+
+        public static double wordSimilarity(String text, String value) {
+            return 0;
+        }
+    }
+}
@@ -63,7 +63,7 @@ class ItemMapperTest {
         ItemOutcomeInfoDto infoDto = new ItemOutcomeInfoDto(1L, item1.getName(), item1.getDescription(),
                 true, UserMapper.toUserDto(owner), request1.getId(), null, bookingDto1, List.of(commentDto));
 
-        ItemOutcomeInfoDto result = ItemMapper.toItemInfoDto(item1, List.of(booking1), List.of(commentDto));
+        ItemOutcomeInfoDto result = ItemMapper.toItemInfoDto(item1, null, booking1, List.of(commentDto));
 
         assertEquals(infoDto, result);
     }
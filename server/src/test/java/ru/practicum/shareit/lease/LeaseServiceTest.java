@@ -0,0 +1,72 @@
+package ru.practicum.shareit.lease;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@DataJpaTest
+class LeaseServiceTest {
+    private final LeaseRepository leaseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private LeaseService firstNode;
+    private LeaseService secondNode;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        firstNode = new LeaseService(leaseRepository, transactionTemplate);
+        secondNode = new LeaseService(leaseRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Аренду держит только один узел, пока она не освобождена")
+    void tryAcquire() {
+        assertTrue(firstNode.tryAcquire("job", Duration.ofMinutes(5)));
+        assertFalse(secondNode.tryAcquire("job", Duration.ofMinutes(5)));
+        assertTrue(firstNode.tryAcquire("job", Duration.ofMinutes(5)));
+
+        firstNode.release("job");
+
+        assertTrue(secondNode.tryAcquire("job", Duration.ofMinutes(5)));
+        assertFalse(firstNode.tryAcquire("job", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Узел, не увидевший строку аренды до вставки, не перезаписывает её владельца")
+    void tryAcquire_createdConcurrently() {
+        LeaseRepository staleRepository = mock(LeaseRepository.class, delegatesTo(leaseRepository));
+        doReturn(false).when(staleRepository).existsById("job");
+        LeaseService lateNode = new LeaseService(staleRepository, new TransactionTemplate(transactionManager));
+        assertTrue(firstNode.tryAcquire("job", Duration.ofMinutes(5)));
+
+        assertFalse(lateNode.tryAcquire("job", Duration.ofMinutes(5)));
+
+        assertEquals(firstNode.getNodeId(), leaseRepository.findById("job").orElseThrow().getOwner());
+    }
+
+    @Test
+    @DisplayName("Истёкшую аренду забирает другой узел")
+    void tryAcquire_expired() {
+        assertTrue(firstNode.tryAcquire("job", Duration.ofMinutes(-1)));
+
+        assertTrue(secondNode.tryAcquire("job", Duration.ofMinutes(5)));
+    }
+}
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingOutcomeDto;
 import ru.practicum.shareit.exception.DataNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -68,8 +69,12 @@ class ItemRequestServiceImplTest {
         item2 = new Item(2L, "item2", "description2", Status.UNAVAILABLE, owner, request2);
         booking1 = new Booking(1L, start, end, item1, booker, BookingStatus.WAITING);
         booking2 = new Booking(2L, start, end, item2, booker, BookingStatus.WAITING);
-        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end, item1, booker, booking1.getBookingStatus().name());
-        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end, item2, booker, booking2.getBookingStatus().name());
+        bookingOutcomeDto = new BookingOutcomeDto(1L, start, end,
+                BookingMapper.toBookingItemDto(item1), BookingMapper.toBookerDto(booker),
+                booking1.getBookingStatus().name());
+        bookingOutcomeDto2 = new BookingOutcomeDto(2L, start, end,
+                BookingMapper.toBookingItemDto(item2), BookingMapper.toBookerDto(booker),
+                booking2.getBookingStatus().name());
     }
 
     @Test
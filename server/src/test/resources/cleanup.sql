@@ -0,0 +1,9 @@
+-- Очистка данных между тестами: схему создают миграции, здесь только таблицы и счётчики id
+SET REFERENTIAL_INTEGRITY FALSE;
+TRUNCATE TABLE comments RESTART IDENTITY;
+TRUNCATE TABLE bookings RESTART IDENTITY;
+TRUNCATE TABLE items RESTART IDENTITY;
+TRUNCATE TABLE requests RESTART IDENTITY;
+TRUNCATE TABLE users RESTART IDENTITY;
+TRUNCATE TABLE leases;
+SET REFERENTIAL_INTEGRITY TRUE;
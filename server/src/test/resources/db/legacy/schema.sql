@@ -30,6 +30,8 @@ create table if not exists items
     foreign key (request_id) references requests (id) on delete cascade
     );
 
+create index if not exists idx_items_owner on items (owner_id);
+
 drop table if exists bookings cascade;
 create table if not exists bookings
 (
@@ -43,6 +45,9 @@ create table if not exists bookings
     foreign key (booker_id) references users (id) on delete cascade
     );
 
+create index if not exists idx_bookings_item_period on bookings (item_id, start_date, end_date);
+create index if not exists idx_bookings_status_start on bookings (status, start_date);
+
 drop table if exists comments cascade;
 create table if not exists comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -53,4 +58,11 @@ create table if not exists comments (
     CONSTRAINT PK_COMMENTS PRIMARY KEY (id),
     CONSTRAINT FK_COMMENT_FOR_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT FK_COMMENT_FOR_USER FOREIGN KEY (author_id) REFERENCES users (id)
-    );
\ No newline at end of file
+    );
+
+create table if not exists leases
+(
+    name varchar(64) PRIMARY KEY,
+    owner varchar(64) not null,
+    locked_until TIMESTAMP WITHOUT TIME ZONE not null
+    );